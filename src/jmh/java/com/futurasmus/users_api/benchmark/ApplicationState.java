@@ -0,0 +1,44 @@
+package com.futurasmus.users_api.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.futurasmus.users_api.UserServiceApiApplication;
+import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+import com.futurasmus.users_api.infrastructure.repository.UserJpaRepository;
+
+// Boots the application against the in-memory H2 database from the test resources and seeds it once per fork.
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    static final int USERS = 10_000;
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(UserServiceApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties("logging.level.root=WARN")
+            .run();
+        List<UserEntity> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new UserEntity(null, "seed" + i + "@example.com", "First" + i, "Last" + i, "$2a$10$seed", null, null, i % 2 == 0, i % 3 == 0, null, null));
+        }
+        context.getBean(UserJpaRepository.class).saveAll(users);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.futurasmus.users_api.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.common.mapper.UserMapper;
+import com.futurasmus.users_api.domain.model.User;
+import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+import com.futurasmus.users_api.util.TestUserMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private UserMapper mapper;
+    private UserEntity entity;
+    private User user;
+    private RequestUserDto request;
+
+    @Setup
+    public void setUp() {
+        mapper = Mappers.getMapper(TestUserMapper.class);
+        LocalDateTime now = LocalDateTime.now();
+        entity = new UserEntity(1L, "bench@example.com", "Bench", "User", "$2a$10$hash", now, now, true, false, null, null);
+        user = mapper.toDomain(entity);
+        request = new RequestUserDto("bench@example.com", "Bench", "User", "password123");
+    }
+
+    @Benchmark
+    public User entityToDomain() {
+        return mapper.toDomain(entity);
+    }
+
+    @Benchmark
+    public UserEntity domainToEntity() {
+        return mapper.toEntity(user);
+    }
+
+    @Benchmark
+    public ResponseUserDto domainToResponse() {
+        return mapper.toResponse(user);
+    }
+
+    @Benchmark
+    public User requestToDomain() {
+        return mapper.toDomain(request);
+    }
+}
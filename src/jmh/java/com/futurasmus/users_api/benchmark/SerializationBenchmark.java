@@ -0,0 +1,66 @@
+package com.futurasmus.users_api.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futurasmus.users_api.application.dto.ResponsePage;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ResponseUserDto user;
+    private PageImpl<ResponseUserDto> page;
+    private ResponsePage<ResponseUserDto> responsePage;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as the ObjectMapper Spring Boot configures for the controllers.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.now();
+        List<ResponseUserDto> users = new ArrayList<>(pageSize);
+        for (long i = 0; i < pageSize; i++) {
+            users.add(new ResponseUserDto(i, "user" + i + "@example.com", "First" + i, "Last" + i, now, now, true, false, 1L));
+        }
+        user = users.get(0);
+        page = new PageImpl<>(users, PageRequest.of(0, pageSize), 10_000);
+        responsePage = new ResponsePage<>(page);
+    }
+
+    @Benchmark
+    public ResponsePage<ResponseUserDto> buildResponsePage() {
+        return new ResponsePage<>(page);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responsePage);
+    }
+}
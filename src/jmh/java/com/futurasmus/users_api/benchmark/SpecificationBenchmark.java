@@ -0,0 +1,57 @@
+package com.futurasmus.users_api.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+import com.futurasmus.users_api.infrastructure.repository.spec.UserSpecification;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpecificationBenchmark {
+
+    private CriteriaBuilder cb;
+    private RequestUserFilterDto allFilters;
+    private RequestUserFilterDto noFilters;
+
+    @Setup
+    public void setUp(ApplicationState app) {
+        cb = app.context.getBean(EntityManagerFactory.class).getCriteriaBuilder();
+        LocalDateTime now = LocalDateTime.now();
+        allFilters = new RequestUserFilterDto("example", "first", "last", "spam", "bot", "test",
+            now, now.minusYears(1), now, now.minusYears(1), true, false, null);
+        noFilters = new RequestUserFilterDto(null, null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public Predicate withAllFilters() {
+        return toPredicate(allFilters);
+    }
+
+    @Benchmark
+    public Predicate withoutFilters() {
+        return toPredicate(noFilters);
+    }
+
+    private Predicate toPredicate(RequestUserFilterDto filter) {
+        CriteriaQuery<UserEntity> query = cb.createQuery(UserEntity.class);
+        Root<UserEntity> root = query.from(UserEntity.class);
+        return UserSpecification.<UserEntity>withFilters(filter).toPredicate(root, query, cb);
+    }
+}
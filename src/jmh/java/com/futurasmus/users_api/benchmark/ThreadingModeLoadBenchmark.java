@@ -0,0 +1,87 @@
+package com.futurasmus.users_api.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.futurasmus.users_api.UserServiceApiApplication;
+import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+import com.futurasmus.users_api.infrastructure.repository.UserJpaRepository;
+
+// HTTP load test of the servlet stack with Tomcat on platform or virtual threads. 512 client threads keep far more
+// requests in flight than the default 200 Tomcat workers; Throughput gives requests per second and SampleTime the
+// p99. Filtered list reads skip the cache, so every request waits on JDBC. The virtual mode needs Java 21.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(512)
+public class ThreadingModeLoadBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void start() {
+        if ("virtual".equals(threads) && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21, running on " + Runtime.version());
+        }
+        context = new SpringApplicationBuilder(UserServiceApiApplication.class)
+            .web(WebApplicationType.SERVLET)
+            .properties("logging.level.root=WARN",
+                "server.port=0",
+                "spring.jpa.show-sql=false",
+                "spring.threads.virtual.enabled=" + "virtual".equals(threads))
+            .run();
+        List<UserEntity> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new UserEntity(null, "seed" + i + "@example.com", "First" + i, "Last" + i, "$2a$10$seed", null, null, i % 2 == 0, i % 3 == 0, null, null));
+        }
+        context.getBean(UserJpaRepository.class).saveAll(users);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/users?size=20&email=seed";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listUsers() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ThreadLocalRandom.current().nextInt(1000))).build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
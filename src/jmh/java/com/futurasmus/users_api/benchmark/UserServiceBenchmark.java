@@ -0,0 +1,76 @@
+package com.futurasmus.users_api.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import com.futurasmus.users_api.application.dto.CountMode;
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.service.UserService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserServiceBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private UserService userService;
+    private CacheManager cacheManager;
+    private RequestUserFilterDto activeFilter;
+    private Pageable pageable;
+    private Long knownId;
+
+    @Setup
+    public void setUp(ApplicationState app) {
+        userService = app.context.getBean(UserService.class);
+        cacheManager = app.context.getBean(CacheManager.class);
+        activeFilter = new RequestUserFilterDto(null, null, null, null, null, null, null, null, null, null, true, null, null);
+        pageable = PageRequest.of(10, 20, Sort.by("id"));
+        knownId = userService.getAllUsers(activeFilter, PageRequest.of(0, 1)).getContent().get(0).id();
+    }
+
+    @Benchmark
+    public Page<ResponseUserDto> listWithExactCount() {
+        return userService.getAllUsers(activeFilter, pageable);
+    }
+
+    @Benchmark
+    public Slice<ResponseUserDto> listWithoutCount() {
+        return userService.getAllUsers(activeFilter, pageable, CountMode.NONE);
+    }
+
+    @Benchmark
+    public ResponseUserDto getByIdCached() {
+        return userService.getUserById(knownId);
+    }
+
+    @Benchmark
+    public ResponseUserDto getByIdUncached() {
+        cacheManager.getCache("users").evict(knownId);
+        return userService.getUserById(knownId);
+    }
+
+    // Dominated by BCrypt; tracks the hashing pool and the insert transaction together.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ResponseUserDto createUser() {
+        long n = sequence.incrementAndGet();
+        return userService.createUser(new RequestUserDto("bench" + n + "-" + System.nanoTime() + "@example.com", "Bench", "User", "password123"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.futurasmus.users_api.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.service.UserService;
+import com.futurasmus.users_api.common.exception.UserVersionMismatchException;
+
+// Many writers doing read + If-Match PATCH on a few rows, retrying on 412. "rows" controls how many writers share a row.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class VersionContentionBenchmark {
+
+    @Param({"1", "8", "64"})
+    public int rows;
+
+    private UserService userService;
+    private Long[] ids;
+
+    @Setup
+    public void setUp(ApplicationState app) {
+        userService = app.context.getBean(UserService.class);
+        RequestUserFilterDto all = new RequestUserFilterDto(null, null, null, null, null, null, null, null, null, null, null, null, null);
+        ids = userService.getAllUsers(all, PageRequest.of(0, rows, Sort.by("id"))).getContent().stream()
+            .map(ResponseUserDto::id)
+            .toArray(Long[]::new);
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Conflicts {
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0;
+        }
+    }
+
+    // No password in the patch, so BCrypt stays out of the measurement.
+    @Benchmark
+    public ResponseUserDto optimisticPatch(Conflicts counters) {
+        Long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        RequestUserPatchDto changes = new RequestUserPatchDto(null, "Writer" + Thread.currentThread().getId(), null, null);
+        while (true) {
+            Long version = userService.getUserVersion(id).version();
+            try {
+                return userService.updateUserPartial(id, changes, version);
+            } catch (UserVersionMismatchException e) {
+                counters.conflicts++;
+            }
+        }
+    }
+
+    // Last writer wins: the upper bound the optimistic path is paying its retries against.
+    @Benchmark
+    public ResponseUserDto unconditionalPatch() {
+        Long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return userService.updateUserPartial(id, new RequestUserPatchDto(null, "Writer" + Thread.currentThread().getId(), null, null));
+    }
+}
@@ -0,0 +1,106 @@
+package com.futurasmus.users_api.benchmark;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.futurasmus.users_api.application.dto.ResponsePage;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.common.http.ProtobufJacksonHttpMessageConverter;
+
+// Encode and decode cost of the formats UserController negotiates. Payload sizes do not change between
+// iterations, so they are printed once per trial next to the timings.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "protobuf"})
+    public String format;
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private ObjectWriter userWriter;
+    private ObjectWriter pageWriter;
+    private ObjectReader userReader;
+    private ResponseUserDto user;
+    private ResponsePage<ResponseUserDto> responsePage;
+    private byte[] encodedUser;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Spring Boot writes dates as ISO strings, which is also what lets protobuf describe them.
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .factory(factory())
+            .build();
+        JavaType userType = mapper.constructType(ResponseUserDto.class);
+        JavaType pageType = mapper.getTypeFactory().constructParametricType(ResponsePage.class, ResponseUserDto.class);
+        userWriter = mapper.writerFor(userType);
+        pageWriter = mapper.writerFor(pageType);
+        userReader = mapper.readerFor(userType);
+        if ("protobuf".equals(format)) {
+            ProtobufJacksonHttpMessageConverter converter = new ProtobufJacksonHttpMessageConverter(mapper);
+            userWriter = userWriter.with(converter.schema(userType).orElseThrow());
+            pageWriter = pageWriter.with(converter.schema(pageType).orElseThrow());
+            userReader = userReader.with(converter.schema(userType).orElseThrow());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ResponseUserDto> users = new ArrayList<>(pageSize);
+        for (long i = 0; i < pageSize; i++) {
+            users.add(new ResponseUserDto(i, "user" + i + "@example.com", "First" + i, "Last" + i, now, now, true, false, 1L));
+        }
+        user = users.get(0);
+        responsePage = new ResponsePage<>(new PageImpl<>(users, PageRequest.of(0, pageSize), 10_000));
+        encodedUser = userWriter.writeValueAsBytes(user);
+        System.out.printf("%n%s: user %d bytes, page of %d %d bytes%n",
+            format, encodedUser.length, pageSize, pageWriter.writeValueAsBytes(responsePage).length);
+    }
+
+    private JsonFactory factory() {
+        return switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "protobuf" -> new ProtobufFactory();
+            default -> new JsonFactory();
+        };
+    }
+
+    @Benchmark
+    public byte[] encodeUser() throws IOException {
+        return userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return pageWriter.writeValueAsBytes(responsePage);
+    }
+
+    @Benchmark
+    public ResponseUserDto decodeUser() throws IOException {
+        return userReader.readValue(encodedUser);
+    }
+}
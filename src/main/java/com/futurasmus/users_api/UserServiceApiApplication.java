@@ -2,8 +2,12 @@ package com.futurasmus.users_api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC is wired by ReactiveConfig only in reactive mode; the auto-configured one would demand a URL in servlet
+// mode and its transaction manager would displace the JPA one.
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class UserServiceApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,7 @@
+package com.futurasmus.users_api.application.dto;
+
+public enum CountMode {
+    EXACT,
+    WINDOW,
+    NONE
+}
@@ -4,11 +4,13 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public record RequestUserDto(
-    @Email @NotBlank @Size(min = 5, max = 100) String email,
-    @Size(min = 2, max = 100) String firstName,
-    @Size(min = 2, max = 100) String lastName,
-    @NotBlank @Size(min = 8, max = 100) String password
+    @JsonProperty(index = 1) @Email @NotBlank @Size(min = 5, max = 100) String email,
+    @JsonProperty(index = 2) @Size(min = 2, max = 100) String firstName,
+    @JsonProperty(index = 3) @Size(min = 2, max = 100) String lastName,
+    @JsonProperty(index = 4) @NotBlank @Size(min = 8, max = 100) String password
 ) {
     public RequestUserDto withEmail(String email){
         return new RequestUserDto(email, this.firstName, this.lastName, this.password);
@@ -14,5 +14,22 @@ public record RequestUserFilterDto(
     LocalDateTime updatedBefore,
     LocalDateTime updatedAfter,
     Boolean active,
-    Boolean verified) {
+    Boolean verified,
+    Boolean includeArchived) {
+
+    // Text filters are substring matches on lower-cased columns, so their case never changes the result.
+    public RequestUserFilterDto normalized() {
+        return new RequestUserFilterDto(lower(email), lower(firstName), lower(lastName),
+            lower(notEmail), lower(notFirstName), lower(notLastName),
+            createdBefore, createdAfter, updatedBefore, updatedAfter, active, verified, includeArchived);
+    }
+
+    // Archived users are only read when asked for; the default query covers the users table alone.
+    public boolean includesArchived() {
+        return Boolean.TRUE.equals(includeArchived);
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase();
+    }
 }
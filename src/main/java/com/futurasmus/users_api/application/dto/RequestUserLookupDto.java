@@ -0,0 +1,12 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record RequestUserLookupDto(
+    @JsonProperty(index = 1) List<Long> ids,
+    @JsonProperty(index = 2) List<String> emails
+) {
+    
+}
@@ -3,11 +3,13 @@ package com.futurasmus.users_api.application.dto;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Size;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public record RequestUserPatchDto(
-    @Email @Size(min = 5, max = 100) String email,
-    @Size(min = 2, max = 100) String firstName,
-    @Size(min = 2, max = 100) String lastName,
-    @Size(min = 8, max = 100) String password
+    @JsonProperty(index = 1) @Email @Size(min = 5, max = 100) String email,
+    @JsonProperty(index = 2) @Size(min = 2, max = 100) String firstName,
+    @JsonProperty(index = 3) @Size(min = 2, max = 100) String lastName,
+    @JsonProperty(index = 4) @Size(min = 8, max = 100) String password
 ) {
     public RequestUserPatchDto withEmail(String email){
         return new RequestUserPatchDto(email, this.firstName, this.lastName, this.password);
@@ -0,0 +1,31 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ResponseBatchItemDto(
+    int index,
+    Status status,
+    ResponseUserDto user,
+    Map<String, String> errors
+) {
+    public enum Status {
+        CREATED,
+        INVALID,
+        CONFLICT
+    }
+
+    public static ResponseBatchItemDto created(int index, ResponseUserDto user) {
+        return new ResponseBatchItemDto(index, Status.CREATED, user, null);
+    }
+
+    public static ResponseBatchItemDto invalid(int index, Map<String, String> errors) {
+        return new ResponseBatchItemDto(index, Status.INVALID, null, errors);
+    }
+
+    public static ResponseBatchItemDto conflict(int index, String email) {
+        return new ResponseBatchItemDto(index, Status.CONFLICT, null, Map.of("email", "Email already in use: " + email));
+    }
+}
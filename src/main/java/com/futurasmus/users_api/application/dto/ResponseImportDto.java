@@ -0,0 +1,20 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// resumeOffset is the first row not yet committed: re-send the file with ?offset=resumeOffset to continue.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ResponseImportDto(
+    boolean completed,
+    long rows,
+    long created,
+    long rejected,
+    long resumeOffset,
+    long elapsedMillis,
+    double rowsPerSecond,
+    List<ResponseImportRejectionDto> rejections,
+    String error
+) {
+}
@@ -0,0 +1,10 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.util.Map;
+
+public record ResponseImportRejectionDto(
+    long row,
+    ResponseBatchItemDto.Status status,
+    Map<String, String> errors
+) {
+}
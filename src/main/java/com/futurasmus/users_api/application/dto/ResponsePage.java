@@ -3,24 +3,37 @@ package com.futurasmus.users_api.application.dto;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.Getter;
 
 @Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ResponsePage<T> {
+    @JsonProperty(index = 1)
     private List<T> content;
+    @JsonProperty(index = 2)
     private int page;
+    @JsonProperty(index = 3)
     private int size;
-    private long totalElements;
-    private int totalPages;
+    @JsonProperty(index = 4)
+    private Long totalElements;
+    @JsonProperty(index = 5)
+    private Integer totalPages;
+    @JsonProperty(index = 6)
     private boolean last;
 
-    public ResponsePage(Page<T> page) {
-        this.content = page.getContent();
-        this.page = page.getNumber();
-        this.size = page.getSize();
-        this.totalElements = page.getTotalElements();
-        this.totalPages = page.getTotalPages();
-        this.last = page.isLast();
+    public ResponsePage(Slice<T> slice) {
+        this.content = slice.getContent();
+        this.page = slice.getNumber();
+        this.size = slice.getSize();
+        this.last = slice.isLast();
+        if (slice instanceof Page<T> page) {
+            this.totalElements = page.getTotalElements();
+            this.totalPages = page.getTotalPages();
+        }
     }
 }
@@ -0,0 +1,18 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// user is the state right after the change, and null for DELETED. ARCHIVED users still exist: they only left the
+// default reads, and an update brings them back with an UPDATED change.
+public record ResponseUserChangeDto(
+    @JsonProperty(index = 1) Long sequence,
+    @JsonProperty(index = 2) UserChangeType type,
+    @JsonProperty(index = 3) Long userId,
+    @JsonProperty(index = 4) Long version,
+    @JsonProperty(index = 5) LocalDateTime changedAt,
+    @JsonProperty(index = 6) ResponseUserDto user
+) {
+
+}
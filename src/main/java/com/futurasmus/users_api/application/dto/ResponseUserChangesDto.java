@@ -0,0 +1,13 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// next is the sequence of the last change returned (or the request's own cursor when empty): pass it back as after.
+public record ResponseUserChangesDto(
+    @JsonProperty(index = 1) List<ResponseUserChangeDto> changes,
+    @JsonProperty(index = 2) long next
+) {
+
+}
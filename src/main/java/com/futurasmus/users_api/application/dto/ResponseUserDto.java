@@ -2,15 +2,18 @@ package com.futurasmus.users_api.application.dto;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public record ResponseUserDto(
-    Long id,
-    String email,
-    String firstName,
-    String lastName,
-    LocalDateTime createdAt,
-    LocalDateTime updatedAt,
-    Boolean active,
-    Boolean verified
+    @JsonProperty(index = 1) Long id,
+    @JsonProperty(index = 2) String email,
+    @JsonProperty(index = 3) String firstName,
+    @JsonProperty(index = 4) String lastName,
+    @JsonProperty(index = 5) LocalDateTime createdAt,
+    @JsonProperty(index = 6) LocalDateTime updatedAt,
+    @JsonProperty(index = 7) Boolean active,
+    @JsonProperty(index = 8) Boolean verified,
+    @JsonProperty(index = 9) Long version
 ) {
     
 }
@@ -0,0 +1,14 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// users follows the request: ids first, then emails, each key once; keys without a user are listed as missing.
+public record ResponseUserLookupDto(
+    @JsonProperty(index = 1) List<ResponseUserDto> users,
+    @JsonProperty(index = 2) List<Long> missingIds,
+    @JsonProperty(index = 3) List<String> missingEmails
+) {
+    
+}
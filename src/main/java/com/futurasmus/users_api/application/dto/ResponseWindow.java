@@ -0,0 +1,29 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.Window;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.futurasmus.users_api.common.pagination.CursorCodec;
+
+import lombok.Getter;
+
+@Getter
+public class ResponseWindow<T> {
+    @JsonProperty(index = 1)
+    private List<T> content;
+    @JsonProperty(index = 2)
+    private int size;
+    @JsonProperty(index = 3)
+    private String nextCursor;
+    @JsonProperty(index = 4)
+    private boolean last;
+
+    public ResponseWindow(Window<T> window) {
+        this.content = window.getContent();
+        this.size = window.size();
+        this.last = window.isLast();
+        this.nextCursor = window.hasNext() ? CursorCodec.encode(window.positionAt(window.size() - 1)) : null;
+    }
+}
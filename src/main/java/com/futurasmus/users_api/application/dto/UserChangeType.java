@@ -0,0 +1,9 @@
+package com.futurasmus.users_api.application.dto;
+
+// Protobuf numbers enum values by position, so new types go last.
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    ARCHIVED
+}
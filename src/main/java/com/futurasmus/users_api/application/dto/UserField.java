@@ -0,0 +1,49 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Selectable ResponseUserDto properties for sparse fieldsets; property() is both the JSON name and the entity attribute.
+public enum UserField {
+    ID("id", ResponseUserDto::id),
+    EMAIL("email", ResponseUserDto::email),
+    FIRST_NAME("firstName", ResponseUserDto::firstName),
+    LAST_NAME("lastName", ResponseUserDto::lastName),
+    CREATED_AT("createdAt", ResponseUserDto::createdAt),
+    UPDATED_AT("updatedAt", ResponseUserDto::updatedAt),
+    ACTIVE("active", ResponseUserDto::active),
+    VERIFIED("verified", ResponseUserDto::verified),
+    VERSION("version", ResponseUserDto::version);
+
+    private final String property;
+    private final Function<ResponseUserDto, Object> accessor;
+
+    UserField(String property, Function<ResponseUserDto, Object> accessor) {
+        this.property = property;
+        this.accessor = accessor;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public static UserField of(String property) {
+        for (UserField field : values()) {
+            if (field.property.equalsIgnoreCase(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + property);
+    }
+
+    // Same shape the sparse queries return, for users that are already in memory (e.g. cached).
+    public static Map<String, Object> select(ResponseUserDto user, Set<UserField> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (UserField field : fields) {
+            row.put(field.property, field.accessor.apply(user));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,10 @@
+package com.futurasmus.users_api.application.dto;
+
+import java.time.LocalDateTime;
+
+public record UserVersionDto(
+    Long version,
+    LocalDateTime updatedAt
+) {
+    
+}
@@ -0,0 +1,104 @@
+package com.futurasmus.users_api.application.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.futurasmus.users_api.common.bloom.BloomFilter;
+import com.futurasmus.users_api.domain.repository.UserEmailRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+
+// Per instance: it learns the emails this instance commits, not other instances' writes, so it can only save the
+// existence query for emails it has never seen. An insert that slips past it (another instance, or a write committed
+// just before put) is still rejected by the unique constraint on email and answered as a conflict.
+@Slf4j
+@Component
+public class EmailBloomFilter {
+
+    private final UserEmailRepository userRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    // Until the first rebuild finishes every email is reported as "maybe present" so the database check still runs.
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+    private volatile long lastRebuildMillis;
+    // A lock rather than synchronized: the rebuild scans the table, and blocking on JDBC inside a monitor pins a virtual thread.
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public EmailBloomFilter(UserEmailRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+
+        Gauge.builder("users.email.filter.bits", this, f -> f.current == null ? 0 : f.current.bitSize())
+            .register(meterRegistry);
+        Gauge.builder("users.email.filter.insertions", this, f -> f.current == null ? 0 : f.current.insertions())
+            .register(meterRegistry);
+        Gauge.builder("users.email.filter.false.positive.rate", this, f -> f.current == null ? 1 : f.current.expectedFalsePositiveRate())
+            .register(meterRegistry);
+        TimeGauge.builder("users.email.filter.rebuild.time", this, TimeUnit.MILLISECONDS, f -> f.lastRebuildMillis)
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            BloomFilter next = BloomFilter.create(Math.max(expectedInsertions, userRepository.count() * 2), falsePositiveRate);
+            building = next;
+            userRepository.forEachEmail(next::put);
+            current = next;
+            building = null;
+            lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Email filter rebuilt: {} emails, {} bits, {} hash functions, expected false positive rate {} in {} ms",
+                next.insertions(), next.bitSize(), next.hashFunctions(), next.expectedFalsePositiveRate(), lastRebuildMillis);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public boolean mightContain(String email) {
+        BloomFilter filter = current;
+        return filter == null || filter.mightContain(email);
+    }
+
+    // Within a transaction the email is added once it commits, so a rollback leaves no bits behind.
+    public void put(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(email);
+                }
+            });
+        } else {
+            add(email);
+        }
+    }
+
+    private void add(String email) {
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(email);
+        }
+        BloomFilter pending = building;
+        if (pending != null) {
+            pending.put(email);
+        }
+    }
+}
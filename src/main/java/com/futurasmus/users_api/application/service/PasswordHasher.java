@@ -0,0 +1,108 @@
+package com.futurasmus.users_api.application.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.futurasmus.users_api.common.exception.HashingCapacityExceededException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+// Runs BCrypt on a CPU-sized pool with a bounded queue; when the queue is full callers fail fast instead of piling up.
+// The pool stays on platform threads even with spring.threads.virtual.enabled: hashing is CPU-bound, so virtual
+// threads would only remove the bound, and the callers wait on a Future, which parks without pinning.
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Timer hashTimer;
+    private final Timer waitTimer;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${users.password-hashing.threads:0}") int threads,
+                          @Value("${users.password-hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${users.password-hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"), new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.hashTimer = Timer.builder("users.password.hash")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.waitTimer = Timer.builder("users.password.hash.wait")
+            .description("Queueing plus hashing time seen by the caller")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        long start = System.nanoTime();
+        try {
+            return await(submit(rawPassword));
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Submits at most one task per worker at a time so a large batch cannot monopolise the shared queue.
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        int window = executor.getMaximumPoolSize();
+        for (int from = 0; from < rawPasswords.size(); from += window) {
+            List<Future<String>> inFlight = rawPasswords.subList(from, Math.min(from + window, rawPasswords.size())).stream()
+                .map(this::submit)
+                .toList();
+            for (Future<String> future : inFlight) {
+                hashes.add(await(future));
+            }
+        }
+        return hashes;
+    }
+
+    private Future<String> submit(String rawPassword) {
+        try {
+            return executor.submit(() -> hashTimer.recordCallable(() -> passwordEncoder.encode(rawPassword)));
+        } catch (RejectedExecutionException ex) {
+            throw new HashingCapacityExceededException(retryAfterSeconds);
+        }
+    }
+
+    private String await(Future<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,128 @@
+package com.futurasmus.users_api.application.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.common.exception.EmailAlreadyExistsException;
+import com.futurasmus.users_api.common.exception.EmailConstraint;
+import com.futurasmus.users_api.common.exception.UserNotFoundException;
+import com.futurasmus.users_api.common.exception.UserVersionMismatchException;
+import com.futurasmus.users_api.common.mapper.UserMapper;
+import com.futurasmus.users_api.domain.repository.ReactiveUserRepository;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Same rules as UserService for the reactive mode. Nothing here blocks an event-loop thread: the only blocking
+// step, waiting for BCrypt on the hashing pool, is moved to boundedElastic.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private UserMapper mapper;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    // CREATE
+    public Mono<ResponseUserDto> createUser(RequestUserDto userDto) {
+        String email = userDto.email().toLowerCase();
+        return hash(userDto.password())
+            .flatMap(hash -> {
+                RequestUserDto normUserDto = userDto.withEmailAndPassword(email, hash);
+                Mono<Boolean> exists = emailFilter.mightContain(email) ? userRepository.existsByEmail(email) : Mono.just(false);
+                return exists
+                    .flatMap(found -> found
+                        ? Mono.error(new EmailAlreadyExistsException(email))
+                        : userRepository.save(mapper.toDomain(normUserDto)))
+                    .as(transactionalOperator::transactional);
+            })
+            .onErrorMap(ReactiveUserService::emailConflict, ex -> new EmailAlreadyExistsException(email))
+            .doOnNext(saved -> emailFilter.put(saved.getEmail()))
+            .map(mapper::toResponse);
+    }
+
+    // READ
+    public Mono<Page<ResponseUserDto>> getAllUsers(RequestUserFilterDto filter, Pageable pageable) {
+        return userRepository.findAllResponses(filter, pageable);
+    }
+
+    public Mono<ResponseUserDto> getUserById(Long userId) {
+        return userRepository.findResponseById(userId)
+            .switchIfEmpty(Mono.error(() -> new UserNotFoundException(userId)));
+    }
+
+    // UPDATE
+    public Mono<ResponseUserDto> updateUser(Long userId, RequestUserDto userDto, Long expectedVersion) {
+        String email = userDto.email().toLowerCase();
+        return hash(userDto.password())
+            .flatMap(hash -> update(userId, email, expectedVersion,
+                userRepository.replace(userId, userDto.withEmailAndPassword(email, hash), expectedVersion)));
+    }
+
+    public Mono<ResponseUserDto> updateUserPartial(Long userId, RequestUserPatchDto userDto, Long expectedVersion) {
+        RequestUserPatchDto normalized = userDto.email() == null ? userDto : userDto.withEmail(userDto.email().toLowerCase());
+        Mono<RequestUserPatchDto> normUserDto = normalized.password() == null
+            ? Mono.just(normalized)
+            : hash(normalized.password()).map(normalized::withPassword);
+        return normUserDto.flatMap(changes -> update(userId, changes.email(), expectedVersion,
+            userRepository.patch(userId, changes, expectedVersion)));
+    }
+
+    // DELETE
+    public Mono<Void> deleteUser(Long userId) {
+        return userRepository.deleteById(userId)
+            .flatMap(deleted -> deleted ? Mono.<Void>empty() : Mono.error(new UserNotFoundException(userId)));
+    }
+
+    // As in UserService: only an update that matched no row pays for more queries. An email held by a deleted user
+    // is freed and the update retried once; one held by an archived user is taken.
+    private Mono<ResponseUserDto> update(Long userId, String email, Long expectedVersion, Mono<ResponseUserDto> update) {
+        Mono<ResponseUserDto> apply = apply(userId, email, expectedVersion, update);
+        return apply
+            .onErrorResume(ex -> email != null && emailConflict(ex),
+                ex -> userRepository.archiveDeletedByEmail(email).flatMap(freed -> freed ? apply : Mono.error(ex)))
+            .onErrorMap(ex -> email != null && emailConflict(ex), ex -> new EmailAlreadyExistsException(email))
+            .doOnNext(updated -> emailFilter.put(updated.email()));
+    }
+
+    private Mono<ResponseUserDto> apply(Long userId, String email, Long expectedVersion, Mono<ResponseUserDto> update) {
+        return update
+            .switchIfEmpty(Mono.defer(() -> expectedVersion == null && email == null
+                ? Mono.error(new UserNotFoundException(userId))
+                : userRepository.findVersionById(userId)
+                    .flatMap(version -> email == null ? Mono.just(false) : userRepository.existsArchivedByEmail(email))
+                    .flatMap(archived -> Mono.<ResponseUserDto>error(archived
+                        ? new EmailAlreadyExistsException(email)
+                        : expectedVersion != null ? new UserVersionMismatchException(userId) : new UserNotFoundException(userId)))
+                    .switchIfEmpty(Mono.error(() -> new UserNotFoundException(userId)))));
+    }
+
+    private static boolean emailConflict(Throwable ex) {
+        return ex instanceof DataIntegrityViolationException && EmailConstraint.violatedBy(ex);
+    }
+
+    private Mono<String> hash(String rawPassword) {
+        return Mono.fromCallable(() -> passwordHasher.encode(rawPassword))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,119 @@
+package com.futurasmus.users_api.application.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.futurasmus.users_api.infrastructure.datasource.ReadYourWrites;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Single flight for identical reads: the first caller (leader) runs the read-only transaction and every caller that
+// asks for the same key while it runs (followers) waits for that result or exception instead of querying again.
+// Nothing is kept once the leader finishes, so this never serves older data than a concurrent read would, and
+// waiting followers hold no transaction or connection. Requests pinned to the primary by the read-your-writes window
+// only share flights with each other.
+@Component
+public class ReadCoalescer {
+
+    private final TransactionOperations readOnlyTransactions;
+    private final BooleanSupplier pinnedToPrimary;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<Flight, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReadCoalescer(PlatformTransactionManager transactionManager,
+                         ObjectProvider<ReadYourWrites> readYourWrites,
+                         MeterRegistry meterRegistry,
+                         @Value("${users.coalescing.enabled:true}") boolean enabled) {
+        this(readOnly(transactionManager), () -> {
+            ReadYourWrites pinning = readYourWrites.getIfAvailable();
+            return pinning != null && pinning.isPinned();
+        }, meterRegistry, enabled);
+    }
+
+    ReadCoalescer(TransactionOperations readOnlyTransactions, BooleanSupplier pinnedToPrimary, MeterRegistry meterRegistry, boolean enabled) {
+        this.readOnlyTransactions = readOnlyTransactions;
+        this.pinnedToPrimary = pinnedToPrimary;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        Gauge.builder("users.coalescing.in.flight", inFlight, Map::size)
+            .description("Reads currently being shared")
+            .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T read(String operation, Object key, Supplier<T> read) {
+        if (!enabled) {
+            return readOnlyTransactions.execute(status -> read.get());
+        }
+        Flight flight = new Flight(operation, key, pinnedToPrimary.getAsBoolean());
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flight, own);
+        if (running != null) {
+            count(operation, "follower");
+            return (T) await(running);
+        }
+        count(operation, "leader");
+        try {
+            T result = readOnlyTransactions.execute(status -> read.get());
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flight, own);
+        }
+    }
+
+    // Called once a write has committed: reads that start afterwards must not join a flight that may predate it.
+    public void forget(String operation, Object key) {
+        inFlight.keySet().removeIf(flight -> flight.operation().equals(operation) && flight.key().equals(key));
+    }
+
+    public void forget(String operation) {
+        inFlight.keySet().removeIf(flight -> flight.operation().equals(operation));
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Leaders and followers per operation; followers / (leaders + followers) is the share of reads that were saved.
+    private void count(String operation, String role) {
+        meterRegistry.counter("users.coalescing", "operation", operation, "role", role).increment();
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private record Flight(String operation, Object key, boolean pinned) {
+    }
+}
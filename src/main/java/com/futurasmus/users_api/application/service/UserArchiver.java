@@ -0,0 +1,96 @@
+package com.futurasmus.users_api.application.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.futurasmus.users_api.domain.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Keeps the users table down to the working set: every interval, deleted users older than deleted-after and
+// inactive users not updated for inactive-after are moved to users_archive. Each chunk is its own short
+// transaction, so the archiver never holds locks on more than chunk-size rows, and a run stops after
+// max-chunks-per-run to leave the backlog to the next one. Runs on Spring's task scheduler, and only when enabled.
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserArchiver {
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final boolean enabled;
+    private final Duration deletedAfter;
+    private final Duration inactiveAfter;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final Counter moved;
+
+    public UserArchiver(UserRepository userRepository,
+                        CacheManager cacheManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${users.archive.enabled:false}") boolean enabled,
+                        @Value("${users.archive.deleted-after:30d}") Duration deletedAfter,
+                        @Value("${users.archive.inactive-after:365d}") Duration inactiveAfter,
+                        @Value("${users.archive.chunk-size:500}") int chunkSize,
+                        @Value("${users.archive.max-chunks-per-run:100}") int maxChunksPerRun) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.enabled = enabled;
+        this.deletedAfter = deletedAfter;
+        this.inactiveAfter = inactiveAfter;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.moved = Counter.builder("users.archive.moved")
+            .description("Users moved from the users table to users_archive")
+            .register(meterRegistry);
+    }
+
+    // One run; returns the number of users moved.
+    public int archive() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            List<Long> ids = userRepository.archive(now.minus(deletedAfter), now.minus(inactiveAfter), chunkSize);
+            evict(ids);
+            moved.increment(ids.size());
+            total += ids.size();
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Archived {} users", total);
+        }
+        return total;
+    }
+
+    @Scheduled(initialDelayString = "${users.archive.interval:1m}", fixedDelayString = "${users.archive.interval:1m}")
+    void tick() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.warn("User archiving failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    // Default reads must stop returning an archived user, including from the id cache.
+    private void evict(List<Long> ids) {
+        Cache cache = cacheManager.getCache("users");
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.futurasmus.users_api.application.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.futurasmus.users_api.application.dto.ResponseUserChangeDto;
+import com.futurasmus.users_api.application.dto.ResponseUserChangesDto;
+import com.futurasmus.users_api.common.exception.ChangesPrunedException;
+import com.futurasmus.users_api.domain.repository.UserChangeRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Incremental sync over the user_changes log. Consumers pass the last sequence they applied and get the following
+// changes in order. Waiting consumers cost no request thread: one ticker checks the newest sequence every
+// poll-interval (and right after local writes) and hands new batches to long-polls and streams.
+//
+// Writes log their changes without a sequence; before reading, the feed has the repository number the committed ones
+// (a relay serialized across instances by a row lock). Sequences are therefore handed out in commit order and become
+// visible in order: a transaction that commits late, however long it ran, gets a sequence above everything already
+// delivered, never one behind a consumer's cursor. Within a user, changes are numbered in version order.
+//
+// Sequences have no gaps, so once UserChangePruner has dropped changes a consumer still needs, its next read fails
+// with 410 and it has to start over from a full read.
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserChangeFeed {
+
+    private final UserChangeRepository changeRepository;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final ScheduledExecutorService ticker;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Counter delivered;
+
+    public UserChangeFeed(UserChangeRepository changeRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${users.changes.poll-interval:1s}") Duration pollInterval,
+                          @Value("${users.changes.max-batch-size:1000}") int maxBatchSize,
+                          @Value("${users.changes.max-wait:60s}") Duration maxWait) {
+        this.changeRepository = changeRepository;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-changes-");
+        threadFactory.setDaemon(true);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.ticker.scheduleWithFixedDelay(this::tick, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        this.delivered = Counter.builder("users.changes.delivered")
+            .description("Changes handed to feed consumers")
+            .register(meterRegistry);
+        Gauge.builder("users.changes.consumers", subscriptions, Set::size)
+            .description("Long-polls and streams waiting for changes")
+            .register(meterRegistry);
+    }
+
+    public ResponseUserChangesDto read(long after, int limit) {
+        relay();
+        return fetch(after, limit);
+    }
+
+    // The newest sequence once committed changes are numbered: a consumer starting from it misses nothing that commits later.
+    public long lastSequence() {
+        relay();
+        return changeRepository.lastSequence();
+    }
+
+    // Long-poll: the callback runs once, with the first non-empty batch or with an empty one after wait (at most max-wait).
+    public Subscription await(long after, int limit, Duration wait, Consumer<ResponseUserChangesDto> callback) {
+        wait = capWait(wait);
+        ResponseUserChangesDto batch = read(after, limit);
+        Subscription subscription = new Subscription(after, limit, true, System.nanoTime() + wait.toNanos(), changes -> {
+            callback.accept(changes);
+            return false;
+        });
+        if (!batch.changes().isEmpty() || wait.isZero()) {
+            callback.accept(batch);
+            return subscription;
+        }
+        return register(subscription);
+    }
+
+    public Duration capWait(Duration wait) {
+        return wait.compareTo(maxWait) > 0 ? maxWait : wait;
+    }
+
+    // Stream: every batch goes to the sink, starting with the backlog, until the sink returns false or it is cancelled.
+    public Subscription subscribe(long after, int limit, Predicate<ResponseUserChangesDto> sink) {
+        fetch(after, 1);
+        Subscription subscription = register(new Subscription(after, limit, false, 0, sink));
+        wake();
+        return subscription;
+    }
+
+    // Called after a local write commits, so local consumers do not wait for the next poll.
+    public void wake() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        try {
+            ticker.execute(this::tick);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        subscriptions.clear();
+    }
+
+    private Subscription register(Subscription subscription) {
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    private ResponseUserChangesDto fetch(long after, int limit) {
+        List<ResponseUserChangeDto> changes = changeRepository.findAfter(after, Math.max(1, Math.min(limit, maxBatchSize)));
+        if (!changes.isEmpty() && changes.get(0).sequence() > Math.max(after, 0) + 1) {
+            throw new ChangesPrunedException("Changes after sequence " + after + " are no longer retained; start over from a full read");
+        }
+        return new ResponseUserChangesDto(changes, changes.isEmpty() ? after : changes.get(changes.size() - 1).sequence());
+    }
+
+    // A failed relay (say, waiting too long on another instance's) leaves the changes for the next one; reads go on
+    // with what is already numbered.
+    private void relay() {
+        try {
+            int numbered;
+            do {
+                numbered = changeRepository.assignSequences(maxBatchSize);
+            } while (numbered >= maxBatchSize);
+        } catch (RuntimeException e) {
+            log.warn("Could not number pending changes: {}", e.getMessage());
+        }
+    }
+
+    private void tick() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        relay();
+        long last;
+        try {
+            last = changeRepository.lastSequence();
+        } catch (RuntimeException e) {
+            log.warn("Could not read the newest change sequence: {}", e.getMessage());
+            return;
+        }
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            try {
+                subscription.poll(last, now);
+            } catch (RuntimeException e) {
+                log.warn("Dropping change feed consumer after {}: {}", subscription.cursor, e.getMessage());
+                subscription.cancel();
+            }
+        }
+    }
+
+    public final class Subscription {
+
+        private final int limit;
+        private final boolean expires;
+        private final long deadline;
+        private final Predicate<ResponseUserChangesDto> sink;
+        private long cursor;
+
+        private Subscription(long after, int limit, boolean expires, long deadline, Predicate<ResponseUserChangesDto> sink) {
+            this.cursor = after;
+            this.limit = limit;
+            this.expires = expires;
+            this.deadline = deadline;
+            this.sink = sink;
+        }
+
+        public void cancel() {
+            subscriptions.remove(this);
+        }
+
+        // Only the ticker thread calls this.
+        private void poll(long last, long now) {
+            while (cursor < last && subscriptions.contains(this)) {
+                ResponseUserChangesDto batch = fetch(cursor, limit);
+                if (batch.changes().isEmpty()) {
+                    break;
+                }
+                deliver(batch);
+            }
+            if (expires && now - deadline >= 0 && subscriptions.contains(this)) {
+                deliver(new ResponseUserChangesDto(List.of(), cursor));
+            }
+        }
+
+        private void deliver(ResponseUserChangesDto batch) {
+            cursor = batch.next();
+            delivered.increment(batch.changes().size());
+            if (!sink.test(batch)) {
+                cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.futurasmus.users_api.application.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.futurasmus.users_api.domain.repository.UserChangeRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Keeps user_changes down to the feed's retention: every interval, numbered changes older than retention are deleted
+// oldest first, chunk-size rows per transaction. Consumers whose cursor falls behind the cut get 410 from the feed
+// and start over from a full read, so retention should cover the longest a consumer may stay away. Only when enabled.
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserChangePruner {
+
+    private final UserChangeRepository changeRepository;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int chunkSize;
+    private final Counter pruned;
+
+    public UserChangePruner(UserChangeRepository changeRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${users.changes.prune.enabled:false}") boolean enabled,
+                            @Value("${users.changes.prune.retention:7d}") Duration retention,
+                            @Value("${users.changes.prune.chunk-size:1000}") int chunkSize) {
+        this.changeRepository = changeRepository;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.pruned = Counter.builder("users.changes.pruned")
+            .description("Changes deleted from user_changes after the retention")
+            .register(meterRegistry);
+    }
+
+    // One run; returns the number of changes deleted.
+    public int prune() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = changeRepository.prune(before, chunkSize);
+            pruned.increment(deleted);
+            total += deleted;
+        } while (deleted == chunkSize);
+        if (total > 0) {
+            log.info("Pruned {} changes", total);
+        }
+        return total;
+    }
+
+    @Scheduled(initialDelayString = "${users.changes.prune.interval:1h}", fixedDelayString = "${users.changes.prune.interval:1h}")
+    void tick() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            prune();
+        } catch (RuntimeException e) {
+            log.warn("Change pruning failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+}
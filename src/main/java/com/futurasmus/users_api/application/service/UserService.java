@@ -1,23 +1,78 @@
 package com.futurasmus.users_api.application.service;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futurasmus.users_api.application.dto.CountMode;
+import com.futurasmus.users_api.application.dto.FileFormat;
 import com.futurasmus.users_api.application.dto.RequestUserDto;
 import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserLookupDto;
 import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseBatchItemDto;
+import com.futurasmus.users_api.application.dto.ResponseImportDto;
+import com.futurasmus.users_api.application.dto.ResponseImportRejectionDto;
 import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.ResponseUserLookupDto;
+import com.futurasmus.users_api.application.dto.UserField;
+import com.futurasmus.users_api.application.dto.UserVersionDto;
+import com.futurasmus.users_api.common.exception.BatchTooLargeException;
 import com.futurasmus.users_api.common.exception.EmailAlreadyExistsException;
+import com.futurasmus.users_api.common.exception.EmailConstraint;
 import com.futurasmus.users_api.common.exception.UserNotFoundException;
+import com.futurasmus.users_api.common.exception.UserVersionMismatchException;
+import com.futurasmus.users_api.common.io.UserRecord;
+import com.futurasmus.users_api.common.io.UserRecordReader;
+import com.futurasmus.users_api.common.io.UserRecordWriter;
 import com.futurasmus.users_api.common.mapper.UserMapper;
+import com.futurasmus.users_api.common.pagination.CursorCodec;
 import com.futurasmus.users_api.domain.model.User;
 import com.futurasmus.users_api.domain.repository.UserRepository;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Timed("users.service")
+@CacheConfig(cacheNames = "users")
 public class UserService {
     
     @Autowired
@@ -27,80 +82,511 @@ public class UserService {
     private UserMapper mapper;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ReadCoalescer readCoalescer;
+
+    @Autowired
+    private UserChangeFeed changeFeed;
+
+    @Value("${users.import.chunk-size:1000}")
+    private int importChunkSize;
+
+    @Value("${users.import.max-reported-rejections:1000}")
+    private int maxReportedRejections;
+
+    @Value("${users.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    private static final String LIST_READ = "getAllUsers";
+    private static final String ID_READ = "getUserById";
+
+    // Write paths hash the password before opening the transaction so no connection is held during BCrypt.
 
     // CREATE
-    @Transactional
+    @CachePut(key = "#result.id")
     public ResponseUserDto createUser(RequestUserDto userDto) {
-        RequestUserDto normUserDto = userDto.withEmailAndPassword(userDto.email().toLowerCase(), passwordEncoder.encode(userDto.password()));
-        userRepository.findByEmail(normUserDto.email())
-            .ifPresent(u -> { throw new EmailAlreadyExistsException(u.getEmail()); });
-        User user = mapper.toDomain(normUserDto);
-        User saved = userRepository.save(user);
-        return mapper.toResponse(saved);
+        RequestUserDto normUserDto = userDto.withEmailAndPassword(userDto.email().toLowerCase(), passwordHasher.encode(userDto.password()));
+        ResponseUserDto created = transactionTemplate.execute(status -> {
+            if (emailFilter.mightContain(normUserDto.email())) {
+                userRepository.findByEmail(normUserDto.email())
+                    .ifPresent(u -> { throw new EmailAlreadyExistsException(u.getEmail()); });
+                if (!claimEmails(Set.of(normUserDto.email())).isEmpty()) {
+                    throw new EmailAlreadyExistsException(normUserDto.email());
+                }
+            }
+            User user = mapper.toDomain(normUserDto);
+            User saved = save(user);
+            return mapper.toResponse(saved);
+        });
+        committed(created.id());
+        return created;
+    }
+
+    // Validation, the set-based email check and hashing run before the insert transaction; only the batched insert holds a connection.
+    public List<ResponseBatchItemDto> createUsers(List<RequestUserDto> userDtos) {
+        if (userDtos.size() > maxBatchSize) {
+            throw new BatchTooLargeException(userDtos.size(), maxBatchSize);
+        }
+        return insertBatch(userDtos);
+    }
+
+    // Rows are committed chunk by chunk through the batch path, so a rejected row or a failing chunk never rolls back
+    // what was already imported; the report tells the caller where to resume.
+    public ResponseImportDto importUsers(FileFormat format, InputStream in, long offset) {
+        long start = System.nanoTime();
+        UserRecordReader reader = UserRecordReader.open(format, in, objectMapper);
+        ImportTally tally = new ImportTally(maxReportedRejections);
+        List<Long> rows = new ArrayList<>(importChunkSize);
+        List<RequestUserDto> users = new ArrayList<>(importChunkSize);
+        long row = 0;
+        long committed = offset;
+        String error = null;
+        try {
+            for (UserRecord record = reader.next(); record != null; record = reader.next(), row++) {
+                if (row < offset) {
+                    continue;
+                }
+                if (record.user() != null) {
+                    rows.add(row);
+                    users.add(record.user());
+                } else {
+                    tally.pending(new ResponseImportRejectionDto(row, ResponseBatchItemDto.Status.INVALID, Map.of("record", record.error())));
+                }
+                if (row + 1 - committed == importChunkSize) {
+                    tally.commit(rows, insertBatch(users));
+                    committed = row + 1;
+                    rows.clear();
+                    users.clear();
+                }
+            }
+            tally.commit(rows, insertBatch(users));
+            committed = Math.max(row, offset);
+        } catch (RuntimeException e) {
+            log.warn("User import stopped at row {}: {}", committed, e.getMessage());
+            error = e.getMessage();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long imported = committed - offset;
+        double rowsPerSecond = elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+        log.info("Imported {} rows ({} created, {} rejected) in {} ms", imported, tally.created, tally.rejected, elapsedMillis);
+        return new ResponseImportDto(error == null, imported, tally.created, tally.rejected, committed,
+            elapsedMillis, rowsPerSecond, tally.rejections, error);
+    }
+
+    private List<ResponseBatchItemDto> insertBatch(List<RequestUserDto> userDtos) {
+        if (userDtos.isEmpty()) {
+            return List.of();
+        }
+        ResponseBatchItemDto[] results = new ResponseBatchItemDto[userDtos.size()];
+        List<Integer> accepted = new ArrayList<>();
+        Set<String> batchEmails = new HashSet<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            RequestUserDto userDto = userDtos.get(i);
+            if (userDto == null) {
+                // A JSON null in the array: the validator rejects null objects outright.
+                results[i] = ResponseBatchItemDto.invalid(i, Map.of("user", "must not be null"));
+                continue;
+            }
+            Set<ConstraintViolation<RequestUserDto>> violations = validator.validate(userDto);
+            if (!violations.isEmpty()) {
+                Map<String, String> errors = new LinkedHashMap<>();
+                violations.forEach(v -> errors.putIfAbsent(v.getPropertyPath().toString(), v.getMessage()));
+                results[i] = ResponseBatchItemDto.invalid(i, errors);
+            } else if (!batchEmails.add(userDto.email().toLowerCase())) {
+                results[i] = ResponseBatchItemDto.conflict(i, userDto.email().toLowerCase());
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        Set<String> existing = new HashSet<>(userRepository.findExistingEmails(batchEmails));
+        existing.addAll(claimEmails(batchEmails.stream()
+            .filter(email -> !existing.contains(email) && emailFilter.mightContain(email))
+            .toList()));
+        accepted.removeIf(i -> {
+            String email = userDtos.get(i).email().toLowerCase();
+            if (existing.contains(email)) {
+                results[i] = ResponseBatchItemDto.conflict(i, email);
+                return true;
+            }
+            return false;
+        });
+
+        List<String> hashes = passwordHasher.encodeAll(accepted.stream().map(i -> userDtos.get(i).password()).toList());
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int j = 0; j < accepted.size(); j++) {
+            RequestUserDto dto = userDtos.get(accepted.get(j));
+            users.add(mapper.toDomain(dto.withEmailAndPassword(dto.email().toLowerCase(), hashes.get(j))));
+        }
+        List<User> saved;
+        try {
+            saved = userRepository.saveAll(users);
+        } catch (DataIntegrityViolationException ex) {
+            if (!EmailConstraint.violatedBy(ex)) {
+                throw ex;
+            }
+            saved = saveEach(users);
+        }
+        readCoalescer.forget(LIST_READ);
+        readCoalescer.forget(ID_READ);
+        changeFeed.wake();
+        for (int j = 0; j < saved.size(); j++) {
+            User user = saved.get(j);
+            if (user == null) {
+                results[accepted.get(j)] = ResponseBatchItemDto.conflict(accepted.get(j), users.get(j).getEmail());
+                continue;
+            }
+            emailFilter.put(user.getEmail());
+            results[accepted.get(j)] = ResponseBatchItemDto.created(accepted.get(j), mapper.toResponse(user));
+        }
+        return List.of(results);
+    }
+
+    // A concurrent insert took one of the emails after the lookup, and the whole batch was rolled back. The rows are
+    // retried one at a time so only the conflicting ones are rejected; a null entry marks a conflict.
+    private List<User> saveEach(List<User> users) {
+        List<User> saved = new ArrayList<>(users.size());
+        for (User user : users) {
+            try {
+                saved.add(userRepository.save(user));
+            } catch (DataIntegrityViolationException ex) {
+                if (!EmailConstraint.violatedBy(ex)) {
+                    throw ex;
+                }
+                saved.add(null);
+            }
+        }
+        return saved;
     }
 
     // READ
-    @Transactional(readOnly = true)
+    // List and id reads are coalesced: identical concurrent requests share one read-only transaction and its result.
+    // The key lower-cases the text filters, which are matched case-insensitively anyway.
     public Page<ResponseUserDto> getAllUsers(RequestUserFilterDto filter, Pageable pageable) {
-        return userRepository.findAll(filter, pageable).map(mapper::toResponse);
+        return readCoalescer.read(LIST_READ, new ListQuery(filter.normalized(), pageable, CountMode.EXACT),
+            () -> userRepository.findAllResponses(filter, pageable));
+    }
+
+    public Slice<ResponseUserDto> getAllUsers(RequestUserFilterDto filter, Pageable pageable, CountMode count) {
+        return switch (count) {
+            case EXACT -> getAllUsers(filter, pageable);
+            case WINDOW -> readCoalescer.read(LIST_READ, new ListQuery(filter.normalized(), pageable, count),
+                () -> userRepository.findAllWithWindowCount(filter, pageable));
+            case NONE -> readCoalescer.read(LIST_READ, new ListQuery(filter.normalized(), pageable, count),
+                () -> userRepository.findSlice(filter, pageable));
+        };
     }
 
+    // Sparse fieldsets narrow the select list as well as the JSON; properties come back in declaration order.
     @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> getAllUsers(RequestUserFilterDto filter, Pageable pageable, CountMode count, Set<UserField> fields) {
+        return userRepository.findFields(filter, pageable, normalize(fields), count);
+    }
+
+    @Transactional(readOnly = true)
+    public Window<ResponseUserDto> scrollUsers(RequestUserFilterDto filter, String cursor, Pageable pageable) {
+        Sort sort = CursorCodec.keysetSort(pageable.getSort());
+        KeysetScrollPosition position = CursorCodec.decode(cursor, sort);
+        return userRepository.findWindow(filter, position, sort, pageable.getPageSize());
+    }
+
+    // Only cache misses reach the coalescer.
+    @Cacheable(key = "#userId")
     public ResponseUserDto getUserById(Long userId) {
-        User user = userRepository.findById(userId)
+        return readCoalescer.read(ID_READ, userId, () -> userRepository.findResponseById(userId)
+            .orElseThrow(() -> new UserNotFoundException(userId)));
+    }
+
+    // Archived users are only looked up after the users table missed, and are not cached.
+    @Transactional(readOnly = true)
+    public ResponseUserDto getUserIncludingArchived(Long userId) {
+        Cache cache = cacheManager.getCache("users");
+        ResponseUserDto cached = cache == null ? null : cache.get(userId, ResponseUserDto.class);
+        if (cached != null) {
+            return cached;
+        }
+        return userRepository.findResponseById(userId)
+            .or(() -> userRepository.findArchivedResponseById(userId))
             .orElseThrow(() -> new UserNotFoundException(userId));
-        return mapper.toResponse(user);
     }
 
-    // UPDATE
-    @Transactional
-    public ResponseUserDto updateUser(Long userId, RequestUserDto userDto) {
-        RequestUserDto normUserDto = userDto.withEmailAndPassword(userDto.email().toLowerCase(), passwordEncoder.encode(userDto.password()));
-        User existingUser = userRepository.findById(userId)
+    // A cached full user is narrowed in memory; otherwise only the requested columns are read. As with the full
+    // representation, the archive is only looked up after the users table missed.
+    public Map<String, Object> getUserById(Long userId, Set<UserField> fields, boolean includeArchived) {
+        Set<UserField> selected = normalize(fields);
+        Cache cache = cacheManager.getCache("users");
+        ResponseUserDto cached = cache == null ? null : cache.get(userId, ResponseUserDto.class);
+        if (cached != null) {
+            return UserField.select(cached, selected);
+        }
+        return userRepository.findFieldsById(userId, selected)
+            .or(() -> includeArchived
+                ? userRepository.findArchivedResponseById(userId).map(user -> UserField.select(user, selected))
+                : Optional.empty())
             .orElseThrow(() -> new UserNotFoundException(userId));
-        userRepository.findByEmail(normUserDto.email())
-            .ifPresent(u -> {
-                if(u.getId() != userId) {
-                    throw new EmailAlreadyExistsException(u.getEmail());
+    }
+
+    // Ids are served from the users cache first; the rest, and all emails, are resolved with chunked IN queries.
+    public ResponseUserLookupDto lookupUsers(RequestUserLookupDto lookup) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (lookup.ids() != null) {
+            lookup.ids().stream().filter(Objects::nonNull).forEach(ids::add);
+        }
+        Set<String> emails = new LinkedHashSet<>();
+        if (lookup.emails() != null) {
+            lookup.emails().stream().filter(Objects::nonNull).map(String::toLowerCase).forEach(emails::add);
+        }
+        if (ids.size() + emails.size() > maxBatchSize) {
+            throw new BatchTooLargeException(ids.size() + emails.size(), maxBatchSize);
+        }
+
+        Cache cache = cacheManager.getCache("users");
+        Map<Long, ResponseUserDto> byId = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : ids) {
+            ResponseUserDto cached = cache == null ? null : cache.get(id, ResponseUserDto.class);
+            if (cached != null) {
+                byId.put(id, cached);
+            } else {
+                uncached.add(id);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            for (ResponseUserDto user : userRepository.findResponsesByIds(uncached)) {
+                byId.put(user.id(), user);
+                if (cache != null) {
+                    cache.put(user.id(), user);
                 }
-            });
-        mapper.updateUserFromDto(normUserDto, existingUser);
-        User saved = userRepository.save(existingUser);
-        return mapper.toResponse(saved);
+            }
+        }
+        Map<String, ResponseUserDto> byEmail = new HashMap<>();
+        if (!emails.isEmpty()) {
+            userRepository.findResponsesByEmails(emails).forEach(user -> byEmail.put(user.email(), user));
+        }
+
+        List<ResponseUserDto> users = new ArrayList<>(ids.size() + emails.size());
+        List<Long> missingIds = new ArrayList<>();
+        List<String> missingEmails = new ArrayList<>();
+        for (Long id : ids) {
+            ResponseUserDto user = byId.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        for (String email : emails) {
+            ResponseUserDto user = byEmail.get(email);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missingEmails.add(email);
+            }
+        }
+        return new ResponseUserLookupDto(users, missingIds, missingEmails);
     }
 
-    @Transactional
+    // Version lookup for conditional GETs: reads two columns instead of the whole user.
+    @Transactional(readOnly = true)
+    public UserVersionDto getUserVersion(Long userId) {
+        return userRepository.findVersionById(userId)
+            .orElseThrow(() -> new UserNotFoundException(userId));
+    }
+
+    @Transactional(readOnly = true)
+    public UserVersionDto getUserVersion(Long userId, boolean includeArchived) {
+        if (!includeArchived) {
+            return getUserVersion(userId);
+        }
+        return userRepository.findVersionById(userId)
+            .or(() -> userRepository.findArchivedResponseById(userId).map(user -> new UserVersionDto(user.version(), user.updatedAt())))
+            .orElseThrow(() -> new UserNotFoundException(userId));
+    }
+
+    // Streams every matching user to the output as it is read, so memory use does not grow with the result size.
+    @Transactional(readOnly = true)
+    public void exportUsers(RequestUserFilterDto filter, FileFormat format, OutputStream out) {
+        UserRecordWriter writer = UserRecordWriter.open(format, out, objectMapper);
+        userRepository.forEachUser(filter, writer::write);
+        writer.flush();
+    }
+
+    // UPDATE
+    @CachePut(key = "#userId")
+    public ResponseUserDto updateUser(Long userId, RequestUserDto userDto) {
+        return updateUser(userId, userDto, null);
+    }
+
+    // expectedVersion comes from If-Match; null skips the check.
+    @CachePut(key = "#userId")
+    public ResponseUserDto updateUser(Long userId, RequestUserDto userDto, Long expectedVersion) {
+        RequestUserDto normUserDto = userDto.withEmailAndPassword(userDto.email().toLowerCase(), passwordHasher.encode(userDto.password()));
+        return update(userId, normUserDto.email(), expectedVersion, () -> userRepository.replace(userId, normUserDto, expectedVersion));
+    }
+
+    @CachePut(key = "#userId")
     public ResponseUserDto updateUserPartial(Long userId, RequestUserPatchDto userDto) {
-        RequestUserPatchDto normUserDto = userDto;
+        return updateUserPartial(userId, userDto, null);
+    }
+
+    @CachePut(key = "#userId")
+    public ResponseUserDto updateUserPartial(Long userId, RequestUserPatchDto userDto, Long expectedVersion) {
+        RequestUserPatchDto normalized = userDto;
         if (userDto.email() != null) {
-            normUserDto = userDto.withEmail(userDto.email().toLowerCase());
+            normalized = normalized.withEmail(userDto.email().toLowerCase());
         }
         if (userDto.password() != null) {
-            normUserDto = userDto.withPassword(passwordEncoder.encode(userDto.password()));
-        }
-
-        User existingUser = userRepository.findById(userId)
-            .orElseThrow(() -> new UserNotFoundException(userId));
-        if (normUserDto.email() != null) {
-            userRepository.findByEmail(normUserDto.email())
-                .ifPresent(u -> {
-                    if(u.getId() != userId) {
-                        throw new EmailAlreadyExistsException(u.getEmail());
-                    }
-                });
+            normalized = normalized.withPassword(passwordHasher.encode(userDto.password()));
         }
-        mapper.patchUserFromDto(normUserDto, existingUser);
-        User saved = userRepository.save(existingUser);
-        return mapper.toResponse(saved);
+        RequestUserPatchDto normUserDto = normalized;
+        return update(userId, normUserDto.email(), expectedVersion, () -> userRepository.patch(userId, normUserDto, expectedVersion));
     }
 
     // DELETE
-    @Transactional
+    @CacheEvict(key = "#userId")
     public void deleteUser(Long userId) {
-        userRepository.findById(userId)
-            .orElseThrow(() -> new UserNotFoundException(userId));
-        userRepository.deleteById(userId);
+        if (!userRepository.deleteById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+        committed(userId);
+    }
+
+    // Updates are a single statement, so email conflicts are detected by the unique constraint rather than a lookup,
+    // and emails of archived users by a guard in the same UPDATE. Only an update that matched no row pays for more
+    // queries, to tell a taken email or a stale version from a missing user.
+    // An email held by a deleted user is freed and the update retried once; one held by an archived user is taken.
+    private ResponseUserDto update(Long userId, String email, Long expectedVersion, Supplier<Optional<ResponseUserDto>> update) {
+        ResponseUserDto updated;
+        try {
+            updated = apply(userId, email, expectedVersion, update);
+        } catch (DataIntegrityViolationException ex) {
+            if (email == null || !EmailConstraint.violatedBy(ex)) {
+                throw ex;
+            }
+            if (userRepository.archiveDeleted(Set.of(email)) == 0) {
+                throw new EmailAlreadyExistsException(email);
+            }
+            try {
+                updated = apply(userId, email, expectedVersion, update);
+            } catch (DataIntegrityViolationException retryEx) {
+                if (!EmailConstraint.violatedBy(retryEx)) {
+                    throw retryEx;
+                }
+                throw new EmailAlreadyExistsException(email);
+            }
+        }
+        emailFilter.put(updated.email());
+        committed(userId);
+        return updated;
+    }
+
+    private ResponseUserDto apply(Long userId, String email, Long expectedVersion, Supplier<Optional<ResponseUserDto>> update) {
+        return update.get().orElseThrow(() -> {
+            if ((expectedVersion == null && email == null)
+                    || (userRepository.findVersionById(userId).isEmpty() && userRepository.findArchivedResponseById(userId).isEmpty())) {
+                return new UserNotFoundException(userId);
+            }
+            if (email != null && !userRepository.findArchivedEmails(Set.of(email)).isEmpty()) {
+                return new EmailAlreadyExistsException(email);
+            }
+            return expectedVersion != null ? new UserVersionMismatchException(userId) : new UserNotFoundException(userId);
+        });
+    }
+
+    // Archived users keep their emails. Deleted users still in the users table release theirs: the row is archived
+    // at once instead of waiting for the archiver. Returns the emails that stay taken.
+    private Set<String> claimEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> archived = userRepository.findArchivedEmails(emails);
+        List<String> free = emails.stream().filter(email -> !archived.contains(email)).toList();
+        if (!free.isEmpty()) {
+            userRepository.archiveDeleted(free);
+        }
+        return archived;
+    }
+
+    // Reads that start after a write must see it, so they may not join a flight that began before the commit.
+    // Local change feed consumers are woken instead of waiting for the next poll.
+    private void committed(Long userId) {
+        readCoalescer.forget(ID_READ, userId);
+        readCoalescer.forget(LIST_READ);
+        changeFeed.wake();
+    }
+
+    private static Set<UserField> normalize(Set<UserField> fields) {
+        return fields == null || fields.isEmpty() ? EnumSet.allOf(UserField.class) : EnumSet.copyOf(fields);
     }
 
+    // The filter is per instance, so a concurrent insert elsewhere can still slip past it and hit the unique constraint.
+    private User save(User user) {
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException ex) {
+            if (!EmailConstraint.violatedBy(ex)) {
+                throw ex;
+            }
+            throw new EmailAlreadyExistsException(user.getEmail());
+        }
+        emailFilter.put(saved.getEmail());
+        return saved;
+    }
+
+    private record ListQuery(RequestUserFilterDto filter, Pageable pageable, CountMode count) {
+    }
+
+    private static final class ImportTally {
+        private final int maxReported;
+        private final List<ResponseImportRejectionDto> rejections = new ArrayList<>();
+        private final List<ResponseImportRejectionDto> pending = new ArrayList<>();
+        private long created;
+        private long rejected;
+
+        private ImportTally(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        private void pending(ResponseImportRejectionDto rejection) {
+            pending.add(rejection);
+        }
+
+        private void commit(List<Long> rows, List<ResponseBatchItemDto> results) {
+            pending.forEach(this::reject);
+            pending.clear();
+            for (int i = 0; i < results.size(); i++) {
+                ResponseBatchItemDto result = results.get(i);
+                if (result.status() == ResponseBatchItemDto.Status.CREATED) {
+                    created++;
+                } else {
+                    reject(new ResponseImportRejectionDto(rows.get(i), result.status(), result.errors()));
+                }
+            }
+        }
+
+        private void reject(ResponseImportRejectionDto rejection) {
+            rejected++;
+            if (rejections.size() < maxReported) {
+                rejections.add(rejection);
+            }
+        }
+    }
 }
@@ -0,0 +1,7 @@
+package com.futurasmus.users_api.common.exception;
+
+public class BatchTooLargeException extends RuntimeException {
+    public BatchTooLargeException(int size, int maxSize) {
+        super("Batch of " + size + " users exceeds the maximum of " + maxSize);
+    }
+}
@@ -0,0 +1,7 @@
+package com.futurasmus.users_api.common.exception;
+
+public class ChangesPrunedException extends RuntimeException {
+    public ChangesPrunedException(String message) {
+        super(message);
+    }
+}
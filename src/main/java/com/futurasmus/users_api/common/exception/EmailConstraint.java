@@ -0,0 +1,24 @@
+package com.futurasmus.users_api.common.exception;
+
+import java.util.Locale;
+
+// The unique key on users.email. An integrity violation is an email conflict only when the database names this
+// constraint; any other one (a NOT NULL column, another key) is left to surface as the error it is.
+public final class EmailConstraint {
+
+    public static final String NAME = "uk_users_email";
+
+    private EmailConstraint() {
+    }
+
+    // Both JDBC and R2DBC drivers put the constraint or index name in the message of some exception in the chain.
+    public static boolean violatedBy(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
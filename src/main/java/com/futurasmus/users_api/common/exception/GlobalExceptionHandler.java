@@ -4,32 +4,107 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleUserNotFound(UserNotFoundException ex) {
+        count(ex, HttpStatus.NOT_FOUND);
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(Map.of("error", ex.getMessage()));
     }
 
     @ExceptionHandler(EmailAlreadyExistsException.class)
     public ResponseEntity<Map<String, String>> handleEmailExists(EmailAlreadyExistsException ex) {
+        count(ex, HttpStatus.CONFLICT);
         return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(Map.of("error", ex.getMessage()));
     }
 
+    @ExceptionHandler(UserVersionMismatchException.class)
+    public ResponseEntity<Map<String, String>> handleVersionMismatch(UserVersionMismatchException ex) {
+        count(ex, HttpStatus.PRECONDITION_FAILED);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<Map<String, String>> handleBatchTooLarge(BatchTooLargeException ex) {
+        count(ex, HttpStatus.PAYLOAD_TOO_LARGE);
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<Map<String, String>> handleHashingCapacityExceeded(HashingCapacityExceededException ex) {
+        count(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, String>> handleRateLimitExceeded(RateLimitExceededException ex) {
+        count(ex, HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidCursor(InvalidCursorException ex) {
+        count(ex, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(ChangesPrunedException.class)
+    public ResponseEntity<Map<String, String>> handleChangesPruned(ChangesPrunedException ex) {
+        count(ex, HttpStatus.GONE);
+        return ResponseEntity.status(HttpStatus.GONE)
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    // An event stream has no representation for the error map; the status alone stops an EventSource reconnecting.
+    @ExceptionHandler(exception = ChangesPrunedException.class, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Void> handleChangesPrunedStream(ChangesPrunedException ex) {
+        count(ex, HttpStatus.GONE);
+        return ResponseEntity.status(HttpStatus.GONE).build();
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidImportFile(InvalidImportFileException ex) {
+        count(ex, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidation(MethodArgumentNotValidException ex) {
+        count(ex, HttpStatus.BAD_REQUEST);
         Map<String, String> errors = ex.getBindingResult().getFieldErrors()
                 .stream()
                 .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage));
@@ -38,6 +113,7 @@ public class GlobalExceptionHandler {
     
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<Map<String, String>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        count(ex, HttpStatus.BAD_REQUEST);
         Map<String, String> error = new HashMap<>();
         error.put("error", "Invalid parameter type");
         error.put("message", String.format("Parameter '%s' must be a valid %s", 
@@ -45,15 +121,52 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
     
+    // The reactive mode reports binding and conversion failures with its own exception types.
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleReactiveValidation(WebExchangeBindException ex) {
+        count(ex, HttpStatus.BAD_REQUEST);
+        Map<String, String> errors = ex.getBindingResult().getFieldErrors()
+                .stream()
+                .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage));
+        return ResponseEntity.badRequest().body(errors);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Map<String, String>> handleReactiveInput(ServerWebInputException ex) {
+        count(ex, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", ex.getReason() != null ? ex.getReason() : "Invalid request"));
+    }
+
     @ExceptionHandler(NoResourceFoundException.class)
     public ResponseEntity<Map<String, Object>> handleNoResourceFound(NoResourceFoundException ex) {
+        count(ex, HttpStatus.NOT_FOUND);
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
             .body(Map.of("error", "La ruta solicitada no existe: " + ex.getResourcePath()));
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGeneric(Exception ex) {
+        count(ex, HttpStatus.INTERNAL_SERVER_ERROR);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Internal server error"));
     }
+
+    // Tagged with the controller method that failed, so error rates can be read per operation and outcome.
+    private void count(Exception ex, HttpStatus status) {
+        meterRegistry.counter("users.errors",
+                "operation", operation(),
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value()),
+                "outcome", status.is5xxServerError() ? "SERVER_ERROR" : "CLIENT_ERROR")
+            .increment();
+    }
+
+    private static String operation() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getRequest().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            return handler.getMethod().getName();
+        }
+        return "none";
+    }
 }
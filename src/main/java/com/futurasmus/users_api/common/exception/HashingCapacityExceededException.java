@@ -0,0 +1,13 @@
+package com.futurasmus.users_api.common.exception;
+
+import lombok.Getter;
+
+@Getter
+public class HashingCapacityExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public HashingCapacityExceededException(long retryAfterSeconds) {
+        super("Password hashing capacity exhausted, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
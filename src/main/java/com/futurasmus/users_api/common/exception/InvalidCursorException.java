@@ -0,0 +1,7 @@
+package com.futurasmus.users_api.common.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
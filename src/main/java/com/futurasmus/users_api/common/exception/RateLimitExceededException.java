@@ -0,0 +1,13 @@
+package com.futurasmus.users_api.common.exception;
+
+import lombok.Getter;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String tier, long retryAfterSeconds) {
+        super("Rate limit exceeded for " + tier + " requests, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.futurasmus.users_api.common.exception;
+
+public class UserVersionMismatchException extends RuntimeException {
+    public UserVersionMismatchException(Long id) {
+        super("User with id " + id + " was modified by another request");
+    }
+}
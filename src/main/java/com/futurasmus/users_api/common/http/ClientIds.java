@@ -0,0 +1,31 @@
+package com.futurasmus.users_api.common.http;
+
+import java.util.Set;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Who is calling: the remote address. X-Client-Id is only taken from a trusted proxy (a gateway that has
+// authenticated the caller); from anyone else it is caller-chosen, and a fresh value per request would be a fresh
+// identity. Behind a load balancer, server.forward-headers-strategy=native makes the remote address the client's.
+public final class ClientIds {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    private final Set<String> trustedProxies;
+
+    public ClientIds(Set<String> trustedProxies) {
+        this.trustedProxies = Set.copyOf(trustedProxies);
+    }
+
+    public String of(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+        String client = request.getHeader(CLIENT_HEADER);
+        if (client == null || client.isBlank()) {
+            return address;
+        }
+        return client;
+    }
+}
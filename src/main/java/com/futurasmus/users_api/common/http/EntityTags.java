@@ -0,0 +1,125 @@
+package com.futurasmus.users_api.common.http;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+
+// Strong validators. A user's tag is its @Version counter, which every write bumps, so the same tag can be sent
+// back in If-Match. A strong tag names one representation, so CBOR and protobuf responses carry the tag with their
+// format as a suffix; JSON, the default, keeps the bare tag.
+public final class EntityTags {
+
+    // In the message converters' order, so an Accept header that several of them satisfy picks the same one.
+    private static final List<MediaType> REPRESENTATIONS = List.of(
+        MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, ProtobufJacksonHttpMessageConverter.PROTOBUF);
+    private static final Map<MediaType, String> SUFFIXES = Map.of(
+        MediaType.APPLICATION_CBOR, "-cbor", ProtobufJacksonHttpMessageConverter.PROTOBUF, "-protobuf");
+
+    // Matches no stored version, so an unparseable If-Match fails the precondition instead of being ignored.
+    private static final long UNMATCHABLE_VERSION = -1;
+
+    private EntityTags() {
+    }
+
+    public static String forUser(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // The tag of the representation an Accept header selects: its most specific type that a converter produces.
+    public static String forRepresentation(String tag, String accept) {
+        String suffix = SUFFIXES.get(representation(accept));
+        return suffix == null ? tag : tag.substring(0, tag.length() - 1) + suffix + "\"";
+    }
+
+    // If-Match uses strong comparison: weak or malformed tags never match. "*" is any current version (null). The
+    // version is the same whichever representation the tag came from.
+    public static Long version(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return UNMATCHABLE_VERSION;
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        for (String suffix : SUFFIXES.values()) {
+            if (value.endsWith(suffix)) {
+                value = value.substring(0, value.length() - suffix.length());
+                break;
+            }
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return UNMATCHABLE_VERSION;
+        }
+    }
+
+    public static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Digest of the page's (id, version) pairs plus the paging metadata that is part of the representation.
+    public static String forUsers(List<ResponseUserDto> users, Object... metadata) {
+        MessageDigest digest = sha256();
+        for (Object value : metadata) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '|');
+        }
+        for (ResponseUserDto user : users) {
+            digest.update((user.id() + ":" + user.version() + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    // Digest of the rendered values, for sparse rows that may carry neither id nor version.
+    public static String forRows(List<Map<String, Object>> rows, Object... metadata) {
+        MessageDigest digest = sha256();
+        for (Object value : metadata) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '|');
+        }
+        for (Map<String, Object> row : rows) {
+            digest.update((row + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    private static MediaType representation(String accept) {
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            for (MediaType representation : REPRESENTATIONS) {
+                if (type.isCompatibleWith(representation)) {
+                    return representation;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.futurasmus.users_api.common.http;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.protoparser.protoparser.TypeElement;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schemagen.ProtobufSchemaGenerator;
+
+// Protocol Buffers for the DTOs without generated classes: the .proto schema of each payload type is derived
+// from the type itself and cached, and the wire format is standard protobuf. Only message types can be the
+// payload, so collections, maps and types the generator cannot describe are left to the other converters.
+// Field numbers come from @JsonProperty(index) on the DTOs, and static/users.proto is the published contract.
+public class ProtobufJacksonHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private final Map<JavaType, Optional<ProtobufSchema>> schemas = new ConcurrentHashMap<>();
+
+    public ProtobufJacksonHttpMessageConverter(ObjectMapper protobufMapper) {
+        super(protobufMapper, PROTOBUF);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return super.canRead(type, contextClass, mediaType) && schema(getJavaType(type, contextClass)).isPresent();
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return super.canWrite(type, clazz, mediaType) && schema(getJavaType(type != null ? type : clazz, null)).isPresent();
+    }
+
+    @Override
+    protected ObjectReader customizeReader(ObjectReader reader, JavaType javaType) {
+        return reader.with(schema(javaType).orElseThrow());
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+        return writer.with(schema(javaType).orElseThrow());
+    }
+
+    public Optional<ProtobufSchema> schema(JavaType javaType) {
+        if (javaType == null || javaType.isContainerType() || javaType.isJavaLangObject()) {
+            return Optional.empty();
+        }
+        return schemas.computeIfAbsent(javaType, type -> {
+            try {
+                ProtobufSchemaGenerator generator = new ProtobufSchemaGenerator();
+                getObjectMapper().acceptJsonFormatVisitor(type, generator);
+                return Optional.of(generator.getGeneratedSchema());
+            } catch (JsonMappingException | RuntimeException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    // One .proto for several payload types, each message once. static/users.proto is this output for the
+    // API's payloads, so a change to a DTO that moves a field number shows up as a diff of that file.
+    public String proto(Collection<JavaType> types) throws JsonMappingException {
+        Map<String, TypeElement> elements = new TreeMap<>();
+        for (JavaType type : types) {
+            ProtobufSchemaGenerator generator = new ProtobufSchemaGenerator();
+            getObjectMapper().acceptJsonFormatVisitor(type, generator);
+            generator.buildWithDependencies().forEach(element -> elements.putIfAbsent(element.name(), element));
+        }
+        StringBuilder proto = new StringBuilder("syntax = \"proto2\";\n\n");
+        elements.values().forEach(element -> proto.append(element.toSchema()));
+        return proto.toString();
+    }
+}
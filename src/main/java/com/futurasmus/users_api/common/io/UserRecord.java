@@ -0,0 +1,15 @@
+package com.futurasmus.users_api.common.io;
+
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+
+// Either a parsed user or the reason the record could not be parsed.
+public record UserRecord(RequestUserDto user, String error) {
+
+    public static UserRecord parsed(RequestUserDto user) {
+        return new UserRecord(user, null);
+    }
+
+    public static UserRecord malformed(String error) {
+        return new UserRecord(null, error);
+    }
+}
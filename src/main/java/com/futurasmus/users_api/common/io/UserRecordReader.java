@@ -0,0 +1,162 @@
+package com.futurasmus.users_api.common.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futurasmus.users_api.application.dto.FileFormat;
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.common.exception.InvalidImportFileException;
+
+// Reads one user per line (CSV rows may span lines inside quotes), so imports never buffer the whole body.
+// A malformed record is returned as such and the reader stays positioned on the next record.
+public class UserRecordReader {
+
+    private final FileFormat format;
+    private final BufferedReader in;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+
+    private UserRecordReader(FileFormat format, InputStream in, ObjectMapper objectMapper) {
+        this.format = format;
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        this.objectMapper = objectMapper;
+    }
+
+    public static UserRecordReader open(FileFormat format, InputStream in, ObjectMapper objectMapper) {
+        UserRecordReader reader = new UserRecordReader(format, in, objectMapper);
+        if (format == FileFormat.CSV) {
+            String header;
+            try {
+                header = reader.nextRecord();
+            } catch (IllegalArgumentException e) {
+                throw new InvalidImportFileException(e.getMessage());
+            }
+            if (header == null) {
+                throw new InvalidImportFileException("CSV input must start with a header row");
+            }
+            reader.columns = header(fields(header));
+        }
+        return reader;
+    }
+
+    // Returns null at the end of the input.
+    public UserRecord next() {
+        try {
+            String record = nextRecord();
+            if (record == null) {
+                return null;
+            }
+            return UserRecord.parsed(format == FileFormat.NDJSON ? json(record) : csv(record));
+        } catch (IllegalArgumentException e) {
+            return UserRecord.malformed(e.getMessage());
+        }
+    }
+
+    private RequestUserDto json(String line) {
+        try {
+            RequestUserDto user = objectMapper.readValue(line, RequestUserDto.class);
+            if (user == null) {
+                throw new IllegalArgumentException("Empty JSON record");
+            }
+            return user;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON record: " + e.getOriginalMessage());
+        }
+    }
+
+    private RequestUserDto csv(String record) {
+        List<String> values = fields(record);
+        return new RequestUserDto(value(values, "email"), value(values, "firstname"), value(values, "lastname"), value(values, "password"));
+    }
+
+    private static Map<String, Integer> header(List<String> names) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("email") || !columns.containsKey("password")) {
+            throw new InvalidImportFileException("CSV header must contain at least the email and password columns");
+        }
+        return columns;
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    private String nextRecord() {
+        try {
+            String line;
+            do {
+                line = in.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null || format == FileFormat.NDJSON) {
+                return line;
+            }
+            StringBuilder record = new StringBuilder(line);
+            while (openQuote(record)) {
+                String continuation = in.readLine();
+                if (continuation == null) {
+                    throw new IllegalArgumentException("Unterminated quoted CSV field");
+                }
+                record.append('\n').append(continuation);
+            }
+            return record.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean openQuote(CharSequence record) {
+        boolean open = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    private static List<String> fields(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,95 @@
+package com.futurasmus.users_api.common.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.futurasmus.users_api.application.dto.FileFormat;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+
+// Writes one user per line so an export never holds more than the current row and the buffer.
+public class UserRecordWriter {
+
+    public static final String CSV_HEADER = "id,email,firstName,lastName,createdAt,updatedAt,active,verified";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileFormat format;
+    private final Writer out;
+    private final ObjectWriter json;
+
+    private UserRecordWriter(FileFormat format, OutputStream out, ObjectMapper objectMapper) {
+        this.format = format;
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.json = objectMapper.writerFor(ResponseUserDto.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public static UserRecordWriter open(FileFormat format, OutputStream out, ObjectMapper objectMapper) {
+        UserRecordWriter writer = new UserRecordWriter(format, out, objectMapper);
+        if (format == FileFormat.CSV) {
+            writer.line(CSV_HEADER);
+        }
+        return writer;
+    }
+
+    public void write(ResponseUserDto user) {
+        try {
+            if (format == FileFormat.NDJSON) {
+                json.writeValue(out, user);
+                out.write('\n');
+            } else {
+                out.write(csv(user));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void line(String value) {
+        try {
+            out.write(value);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(ResponseUserDto user) {
+        return String.join(",",
+            field(user.id()),
+            field(user.email()),
+            field(user.firstName()),
+            field(user.lastName()),
+            field(user.createdAt()),
+            field(user.updatedAt()),
+            field(user.active()),
+            field(user.verified()));
+    }
+
+    private static String field(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
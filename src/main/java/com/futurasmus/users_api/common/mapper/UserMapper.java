@@ -4,6 +4,7 @@ import com.futurasmus.users_api.application.dto.RequestUserDto;
 import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
 import com.futurasmus.users_api.application.dto.ResponseUserDto;
 import com.futurasmus.users_api.domain.model.User;
+import com.futurasmus.users_api.infrastructure.entity.AnyUserEntity;
 import com.futurasmus.users_api.infrastructure.entity.UserEntity;
 
 import org.mapstruct.BeanMapping;
@@ -15,6 +16,9 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 @Mapper(componentModel = "spring")
 public interface UserMapper {
     User toDomain(UserEntity entity);
+    User toDomain(AnyUserEntity entity);
+
+    @Mapping(target = "deletedAt", ignore = true)
     UserEntity toEntity(User domain);
     ResponseUserDto toResponse(User domain);
     
@@ -23,6 +27,7 @@ public interface UserMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "active", constant = "true")
     @Mapping(target = "verified", constant = "false")
+    @Mapping(target = "version", ignore = true)
     User toDomain(RequestUserDto dto);
 
     @Mapping(target = "id", ignore = true)
@@ -30,6 +35,7 @@ public interface UserMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "active", ignore = true)
     @Mapping(target = "verified", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateUserFromDto(RequestUserDto dto, @MappingTarget User domain);
 
     @Mapping(target = "id", ignore = true)
@@ -37,6 +43,7 @@ public interface UserMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "active", ignore = true)
     @Mapping(target = "verified", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void patchUserFromDto(RequestUserPatchDto dto, @MappingTarget User domain);
 
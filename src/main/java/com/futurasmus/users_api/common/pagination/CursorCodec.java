@@ -0,0 +1,77 @@
+package com.futurasmus.users_api.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.futurasmus.users_api.common.exception.InvalidCursorException;
+
+public final class CursorCodec {
+
+    private static final String ID = "id";
+    private static final Set<String> KEYSET_PROPERTIES = Set.of(ID, "createdAt", "updatedAt");
+    private static final String PAIR_SEPARATOR = "&";
+    private static final String VALUE_SEPARATOR = "=";
+
+    private CursorCodec() {
+    }
+
+    public static Sort keysetSort(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Sort.by(ID);
+        }
+        List<Sort.Order> orders = sort.toList();
+        Sort.Order order = orders.get(0);
+        if (orders.size() > 1 || !KEYSET_PROPERTIES.contains(order.getProperty())) {
+            throw new InvalidCursorException("Cursor pagination only supports sorting by one of " + KEYSET_PROPERTIES);
+        }
+        if (ID.equals(order.getProperty())) {
+            return Sort.by(order);
+        }
+        return Sort.by(order, new Sort.Order(order.getDirection(), ID));
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.isInitial()) {
+            return null;
+        }
+        String raw = keyset.getKeys().entrySet().stream()
+            .map(e -> e.getKey() + VALUE_SEPARATOR + e.getValue())
+            .collect(Collectors.joining(PAIR_SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            for (String pair : raw.split(PAIR_SEPARATOR)) {
+                String[] parts = pair.split(VALUE_SEPARATOR, 2);
+                if (parts.length != 2 || !KEYSET_PROPERTIES.contains(parts[0])) {
+                    throw new InvalidCursorException("Malformed cursor: " + cursor);
+                }
+                keys.put(parts[0], ID.equals(parts[0]) ? Long.valueOf(parts[1]) : LocalDateTime.parse(parts[1]));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+        List<String> sortProperties = sort.stream().map(Sort.Order::getProperty).toList();
+        if (!List.copyOf(keys.keySet()).equals(sortProperties)) {
+            throw new InvalidCursorException("Cursor does not match the requested sort " + sortProperties);
+        }
+        return ScrollPosition.forward(keys);
+    }
+}
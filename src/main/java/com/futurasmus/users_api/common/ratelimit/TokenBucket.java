@@ -0,0 +1,43 @@
+package com.futurasmus.users_api.common.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket kept as a single timestamp (the generic cell rate algorithm): the instant at which the bucket would
+// be full again. Taking a token pushes it one refill interval forward; the request is refused when that would put
+// it more than a full bucket ahead of now. One CAS per request, no lock and no refill thread.
+public final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, double tokensPerSecond, long nowNanos) {
+        if (capacity < 1 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("A token bucket needs a capacity of at least 1 and a positive refill rate");
+        }
+        this.nanosPerToken = Math.max(1, Math.round(1_000_000_000 / tokensPerSecond));
+        this.capacityNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    // 0 when a token was taken, otherwise the nanoseconds until one is available. A refusal takes nothing.
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + nanosPerToken;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Tokens left at nowNanos, rounded down.
+    public long available(long nowNanos) {
+        long used = Math.max(0, fullAt.get() - nowNanos);
+        return (capacityNanos - used) / nanosPerToken;
+    }
+}
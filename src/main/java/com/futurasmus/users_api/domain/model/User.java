@@ -19,4 +19,5 @@ public class User {
     private LocalDateTime updatedAt;
     private Boolean active;
     private Boolean verified;
+    private Long version;
 }
@@ -0,0 +1,27 @@
+package com.futurasmus.users_api.domain.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.UserVersionDto;
+import com.futurasmus.users_api.domain.model.User;
+
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterpart of UserRepository for the reactive mode; an empty Mono stands for an empty Optional.
+public interface ReactiveUserRepository {
+    Mono<User> save(User user);
+    Mono<ResponseUserDto> replace(Long id, RequestUserDto user, Long expectedVersion);
+    Mono<ResponseUserDto> patch(Long id, RequestUserPatchDto changes, Long expectedVersion);
+    Mono<ResponseUserDto> findResponseById(Long id);
+    Mono<UserVersionDto> findVersionById(Long id);
+    Mono<Boolean> existsByEmail(String email);
+    Mono<Boolean> existsArchivedByEmail(String email);
+    Mono<Boolean> archiveDeletedByEmail(String email);
+    Mono<Page<ResponseUserDto>> findAllResponses(RequestUserFilterDto filter, Pageable pageable);
+    Mono<Boolean> deleteById(Long id);
+}
@@ -0,0 +1,13 @@
+package com.futurasmus.users_api.domain.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.futurasmus.users_api.application.dto.ResponseUserChangeDto;
+
+public interface UserChangeRepository {
+    List<ResponseUserChangeDto> findAfter(long sequence, int limit);
+    long lastSequence();
+    int assignSequences(int limit);
+    int prune(LocalDateTime before, int limit);
+}
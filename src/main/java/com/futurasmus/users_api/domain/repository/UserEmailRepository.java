@@ -0,0 +1,9 @@
+package com.futurasmus.users_api.domain.repository;
+
+import java.util.function.Consumer;
+
+// What the email filter rebuilds from, in either mode.
+public interface UserEmailRepository {
+    long count();
+    void forEachEmail(Consumer<String> action);
+}
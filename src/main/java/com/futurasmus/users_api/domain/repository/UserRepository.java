@@ -1,17 +1,51 @@
 package com.futurasmus.users_api.domain.repository;
 
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import com.futurasmus.users_api.application.dto.CountMode;
+import com.futurasmus.users_api.application.dto.RequestUserDto;
 import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.UserField;
+import com.futurasmus.users_api.application.dto.UserVersionDto;
 import com.futurasmus.users_api.domain.model.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public interface UserRepository {
+public interface UserRepository extends UserEmailRepository {
     User save(User user);
+    List<User> saveAll(List<User> users);
+    Optional<ResponseUserDto> replace(Long id, RequestUserDto user, Long expectedVersion);
+    Optional<ResponseUserDto> patch(Long id, RequestUserPatchDto changes, Long expectedVersion);
     Optional<User> findById(Long id);
+    Optional<ResponseUserDto> findResponseById(Long id);
+    Optional<UserVersionDto> findVersionById(Long id);
+    Optional<ResponseUserDto> findArchivedResponseById(Long id);
     Optional<User> findByEmail(String email);
-    Page<User> findAll(RequestUserFilterDto filter, Pageable pageable);
-    void deleteById(Long id);
+    Set<String> findExistingEmails(Collection<String> emails);
+    Set<String> findArchivedEmails(Collection<String> emails);
+    List<ResponseUserDto> findResponsesByIds(Collection<Long> ids);
+    List<ResponseUserDto> findResponsesByEmails(Collection<String> emails);
+    Page<ResponseUserDto> findAllResponses(RequestUserFilterDto filter, Pageable pageable);
+    Page<ResponseUserDto> findAllWithWindowCount(RequestUserFilterDto filter, Pageable pageable);
+    Slice<ResponseUserDto> findSlice(RequestUserFilterDto filter, Pageable pageable);
+    Slice<Map<String, Object>> findFields(RequestUserFilterDto filter, Pageable pageable, Set<UserField> fields, CountMode count);
+    Optional<Map<String, Object>> findFieldsById(Long id, Set<UserField> fields);
+    Window<ResponseUserDto> findWindow(RequestUserFilterDto filter, KeysetScrollPosition position, Sort sort, int limit);
+    boolean deleteById(Long id);
+    int archiveDeleted(Collection<String> emails);
+    List<Long> archive(LocalDateTime deletedBefore, LocalDateTime inactiveBefore, int limit);
+    void forEachUser(RequestUserFilterDto filter, Consumer<ResponseUserDto> action);
 }
@@ -0,0 +1,11 @@
+package com.futurasmus.users_api.infrastructure.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// The cache advice runs before the transactional one so cache hits never open a transaction or borrow a connection.
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CachingConfig {
+}
@@ -0,0 +1,46 @@
+package com.futurasmus.users_api.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.futurasmus.users_api.common.http.ClientIds;
+import com.futurasmus.users_api.infrastructure.ratelimit.RateLimitInterceptor;
+import com.futurasmus.users_api.infrastructure.ratelimit.RateLimitProperties;
+import com.futurasmus.users_api.infrastructure.ratelimit.RateLimiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Per-client token buckets in front of the servlet controllers. Clients are told apart like in the read-your-writes
+// window: by remote address, or by X-Client-Id when a trusted proxy sends it.
+@Configuration
+@ConditionalOnProperty(name = "users.rate-limit.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ClientIds clientIds;
+
+    @Bean
+    public RateLimiter rateLimiter() {
+        return new RateLimiter(properties, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter(), clientIds, properties.endpoints(), meterRegistry))
+            .addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,106 @@
+package com.futurasmus.users_api.infrastructure.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+import org.springframework.web.server.WebFilter;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+// Non-blocking deployment mode: spring.main.web-application-type=reactive serves /api/users from WebFlux and
+// reads and writes through R2DBC. JPA only generates the schema here: the JPA adapters, the change feed and the
+// scheduled jobs are servlet-mode beans, and the email filter is rebuilt through R2DBC.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig implements WebFluxConfigurer, DisposableBean {
+
+    // Deliberately not a bean: a ConnectionFactory bean makes the JDBC DataSource auto-configuration back off,
+    // and JPA is still needed. It is closed here instead.
+    private final ConnectionPool connectionPool;
+    private final R2dbcTransactionManager transactionManager;
+
+    public ReactiveConfig(@Value("${users.r2dbc.url}") String url,
+                          @Value("${users.r2dbc.username:${spring.datasource.username:}}") String username,
+                          @Value("${users.r2dbc.password:${spring.datasource.password:}}") String password,
+                          @Value("${users.r2dbc.pool.max-size:10}") int maxSize,
+                          @Value("${users.r2dbc.pool.max-acquire-time:5s}") Duration maxAcquireTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+            .name("users-r2dbc")
+            .maxSize(maxSize)
+            .maxAcquireTime(maxAcquireTime)
+            .build());
+        this.transactionManager = new R2dbcTransactionManager(connectionPool);
+    }
+
+    // Tomcat is on the classpath for the servlet mode and Boot would otherwise run WebFlux on it; declaring the
+    // factory keeps the reactive mode on Reactor Netty's event loops. server.* properties still apply.
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    // Not a TransactionManager bean either, so @Transactional keeps resolving to the JPA one.
+    @Bean
+    @Primary
+    public TransactionalOperator transactionalOperator() {
+        return TransactionalOperator.create(transactionManager);
+    }
+
+    // For reads of several statements that must agree, such as a page and its total: one snapshot for all of them.
+    @Bean
+    public TransactionalOperator snapshotReadOperator() {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        definition.setReadOnly(true);
+        return TransactionalOperator.create(transactionManager, definition);
+    }
+
+    // Same as the servlet mode: bodies are negotiated on Accept (JSON or CBOR), 304s included.
+    @Bean
+    public WebFilter varyByAcceptFilter() {
+        return (exchange, chain) -> {
+            HttpHeaders headers = exchange.getResponse().getHeaders();
+            if (exchange.getRequest().getPath().value().startsWith("/api/") && !headers.getVary().contains(HttpHeaders.ACCEPT)) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ReactivePageableHandlerMethodArgumentResolver());
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
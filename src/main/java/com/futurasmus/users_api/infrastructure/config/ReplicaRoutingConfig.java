@@ -0,0 +1,89 @@
+package com.futurasmus.users_api.infrastructure.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.futurasmus.users_api.common.http.ClientIds;
+import com.futurasmus.users_api.infrastructure.datasource.ReadYourWrites;
+import com.futurasmus.users_api.infrastructure.datasource.ReadYourWritesFilter;
+import com.futurasmus.users_api.infrastructure.datasource.ReplicaDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Sends read-only transactions to the replicas. The lazy proxy only borrows a physical connection at the first
+// statement, once the transaction has marked it read-only, and then picks the replica source instead of the primary.
+@Configuration
+@ConditionalOnProperty(name = "users.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements DisposableBean {
+
+    // Not beans themselves (only the routing proxy is), so they are closed here.
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${users.datasource.replicas.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWrites readYourWrites, ClientIds clientIds) {
+        return new ReadYourWritesFilter(readYourWrites, clientIds);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReadYourWrites readYourWrites,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${users.datasource.replicas.urls:}") String[] urls,
+                                 @Value("${users.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                 @Value("${users.datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                 @Value("${users.datasource.replicas.connection-timeout:1s}") Duration connectionTimeout,
+                                 @Value("${users.datasource.replicas.downtime:30s}") Duration downtime) {
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url.trim())
+                .username(username)
+                .password(password)
+                .build();
+            replica.setPoolName("users-replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            // A replica that is down at startup must not stop the application; it is skipped until it answers.
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(new ReplicaDataSource(primaryDataSource, List.copyOf(replicas), readYourWrites, downtime, meterRegistry));
+        return proxy;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,10 @@
+package com.futurasmus.users_api.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs such as UserArchiver run on Spring Boot's task scheduler (spring.task.scheduling.*).
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,93 @@
+package com.futurasmus.users_api.infrastructure.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.CompositeTaskDecorator;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.futurasmus.users_api.application.dto.CountMode;
+import com.futurasmus.users_api.application.dto.FileFormat;
+import com.futurasmus.users_api.application.dto.UserField;
+import com.futurasmus.users_api.common.http.ClientIds;
+import com.futurasmus.users_api.common.http.ProtobufJacksonHttpMessageConverter;
+import com.futurasmus.users_api.infrastructure.datasource.ReadYourWrites;
+import com.futurasmus.users_api.infrastructure.metrics.StatementCounter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    // Spring Boot applies the single TaskDecorator bean to the application task executor, which runs async MVC work
+    // such as StreamingResponseBody. Per-request thread state is handed over to it here: the statement count and, with
+    // replicas enabled, the read-your-writes pin.
+    @Bean
+    public TaskDecorator requestStateTaskDecorator(StatementCounter statementCounter, ObjectProvider<ReadYourWrites> readYourWrites) {
+        List<TaskDecorator> decorators = new ArrayList<>();
+        decorators.add(statementCounter::decorate);
+        readYourWrites.ifAvailable(pin -> decorators.add(pin::decorate));
+        return new CompositeTaskDecorator(decorators);
+    }
+
+    // Addresses whose X-Client-Id header is believed; shared by the rate limits and the read-your-writes window.
+    @Bean
+    public ClientIds clientIds(@Value("${users.clients.trusted-proxies:}") String[] trustedProxies) {
+        return new ClientIds(Arrays.stream(trustedProxies)
+            .map(String::trim)
+            .filter(address -> !address.isEmpty())
+            .collect(Collectors.toSet()));
+    }
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, CountMode.class, value -> CountMode.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+        registry.addConverter(String.class, FileFormat.class, value -> FileFormat.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+        registry.addConverter(String.class, UserField.class, value -> UserField.of(value.trim()));
+    }
+
+    // The API's bodies are negotiated on Accept, so shared caches must key on it; set up front so 304s carry it too.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                }
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    // Binary formats go after JSON, so JSON stays the default and CBOR or protobuf is only chosen through Accept
+    // or Content-Type. Both mappers come from the same builder as the JSON one, so field names and dates match.
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(MappingJackson2CborHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+        converters.add(new ProtobufJacksonHttpMessageConverter(objectMapperBuilder.getObject().factory(new ProtobufFactory()).build()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.futurasmus.users_api.infrastructure.controller;
+
+import java.net.URI;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponsePage;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.service.ReactiveUserService;
+import com.futurasmus.users_api.common.http.EntityTags;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Mono;
+
+// WebFlux mirror of the UserController CRUD and paged listing, with the same paths, validation and ETags.
+@RestController
+@RequestMapping("/api/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    // CREATE
+    @PostMapping
+    public Mono<ResponseEntity<ResponseUserDto>> createUser(@Valid @RequestBody RequestUserDto user) {
+        return userService.createUser(user)
+            .map(saved -> ResponseEntity.created(URI.create("/api/users/" + saved.id()))
+                .body(saved));
+    }
+
+    // READ
+    @GetMapping
+    public Mono<ResponseEntity<ResponsePage<ResponseUserDto>>> getAllUsers(@ModelAttribute RequestUserFilterDto filter,
+                                                     @PageableDefault(size = 10, sort = "id") Pageable pageable,
+                                                     ServerWebExchange exchange) {
+        return userService.getAllUsers(filter, pageable)
+            .map(ResponsePage::new)
+            .map(body -> ResponseEntity.ok()
+                .eTag(tag(EntityTags.forUsers(body.getContent(), body.getPage(), body.getSize(), body.getTotalElements(), body.isLast()), exchange))
+                .body(body));
+    }
+
+    // A matching If-None-Match or If-Modified-Since completes empty, after checkNotModified has set the 304.
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<ResponseUserDto>> getUserById(@PathVariable Long userId, ServerWebExchange exchange) {
+        return userService.getUserById(userId)
+            .filter(user -> !exchange.checkNotModified(tag(EntityTags.forUser(user.version()), exchange),
+                Instant.ofEpochMilli(EntityTags.lastModified(user.updatedAt()))))
+            .map(user -> ResponseEntity.ok()
+                .eTag(tag(EntityTags.forUser(user.version()), exchange))
+                .lastModified(EntityTags.lastModified(user.updatedAt()))
+                .body(user));
+    }
+
+    // UPDATE
+    @PutMapping("/{userId}")
+    public Mono<ResponseEntity<ResponseUserDto>> updateUser(@PathVariable Long userId, @Valid @RequestBody RequestUserDto userDto,
+                                                     @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                     ServerWebExchange exchange) {
+        return userService.updateUser(userId, userDto, ifMatch == null ? null : EntityTags.version(ifMatch))
+            .map(updated -> ResponseEntity.ok()
+                .eTag(tag(EntityTags.forUser(updated.version()), exchange))
+                .body(updated));
+    }
+
+    @PatchMapping("/{userId}")
+    public Mono<ResponseEntity<ResponseUserDto>> updateUserPartial(@PathVariable Long userId, @Valid @RequestBody RequestUserPatchDto userDto,
+                                                     @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                     ServerWebExchange exchange) {
+        return userService.updateUserPartial(userId, userDto, ifMatch == null ? null : EntityTags.version(ifMatch))
+            .map(updated -> ResponseEntity.ok()
+                .eTag(tag(EntityTags.forUser(updated.version()), exchange))
+                .body(updated));
+    }
+
+    // DELETE
+    @DeleteMapping("/{userId}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long userId) {
+        return userService.deleteUser(userId)
+            .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    private static String tag(String tag, ServerWebExchange exchange) {
+        return EntityTags.forRepresentation(tag, String.join(",", exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT)));
+    }
+}
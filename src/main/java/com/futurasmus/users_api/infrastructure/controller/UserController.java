@@ -1,11 +1,23 @@
 package com.futurasmus.users_api.infrastructure.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,74 +28,244 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.futurasmus.users_api.application.dto.CountMode;
+import com.futurasmus.users_api.application.dto.FileFormat;
 import com.futurasmus.users_api.application.dto.RequestUserDto;
 import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserLookupDto;
 import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseBatchItemDto;
+import com.futurasmus.users_api.application.dto.ResponseImportDto;
+import com.futurasmus.users_api.application.dto.ResponseUserChangesDto;
 import com.futurasmus.users_api.application.dto.ResponsePage;
 import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.ResponseUserLookupDto;
+import com.futurasmus.users_api.application.dto.ResponseWindow;
+import com.futurasmus.users_api.application.dto.UserField;
+import com.futurasmus.users_api.application.dto.UserVersionDto;
+import com.futurasmus.users_api.application.service.UserChangeFeed;
 import com.futurasmus.users_api.application.service.UserService;
+import com.futurasmus.users_api.common.http.EntityTags;
+import com.futurasmus.users_api.infrastructure.ratelimit.RateLimitTier;
+import com.futurasmus.users_api.infrastructure.ratelimit.RateLimited;
 
 import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/api/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
     
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserChangeFeed changeFeed;
+
+    // Async timeouts are set per endpoint: the container default still bounds every other async request.
+    @Value("${users.export.timeout:1h}")
+    private Duration exportTimeout;
+
+    @Value("${users.changes.stream-timeout:30m}")
+    private Duration streamTimeout;
+
     // CREATE
     @PostMapping
+    @RateLimited(RateLimitTier.WRITE)
     public ResponseEntity<ResponseUserDto> createUser(@Valid @RequestBody RequestUserDto user) {
         ResponseUserDto saved = userService.createUser(user);
         return ResponseEntity.created(URI.create("/api/users/" + saved.id()))
-            .contentType(MediaType.APPLICATION_JSON)
             .body(saved);
     }
 
+    @PostMapping("/batch")
+    @RateLimited(RateLimitTier.WRITE)
+    public ResponseEntity<List<ResponseBatchItemDto>> createUsers(@RequestBody List<RequestUserDto> users) {
+        List<ResponseBatchItemDto> results = userService.createUsers(users);
+        return ResponseEntity.ok()
+            .body(results);
+    }
+
+    @PostMapping("/import")
+    @RateLimited(RateLimitTier.WRITE)
+    public ResponseEntity<ResponseImportDto> importUsers(InputStream body,
+                                                     @RequestParam(defaultValue = "ndjson") FileFormat format,
+                                                     @RequestParam(defaultValue = "0") long offset) {
+        ResponseImportDto report = userService.importUsers(format, body, Math.max(0, offset));
+        return ResponseEntity.status(report.completed() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+            .body(report);
+    }
+
     // READ
     @GetMapping
+    @RateLimited(RateLimitTier.QUERY)
     public ResponseEntity<ResponsePage<ResponseUserDto>> getAllUsers(@ModelAttribute RequestUserFilterDto filter,
-                                                     @PageableDefault(size = 10, sort = "id") Pageable pageable) {
-        Page<ResponseUserDto> page = userService.getAllUsers(filter, pageable);
+                                                     @PageableDefault(size = 10, sort = "id") Pageable pageable,
+                                                     @RequestParam(defaultValue = "exact") CountMode count, WebRequest request) {
+        Slice<ResponseUserDto> page = userService.getAllUsers(filter, pageable, count);
+        ResponsePage<ResponseUserDto> body = new ResponsePage<>(page);
+        // ETag only: a deleted row would not move any Last-Modified date forward.
+        return ResponseEntity.ok()
+            .eTag(tag(EntityTags.forUsers(body.getContent(), body.getPage(), body.getSize(), body.getTotalElements(), body.isLast()), request))
+            .body(body);
+    }
+
+    // Sparse fieldsets; a cursor request takes precedence and always returns full users.
+    @GetMapping(params = {"fields", "!cursor"})
+    @RateLimited(RateLimitTier.QUERY)
+    public ResponseEntity<ResponsePage<Map<String, Object>>> getAllUserFields(@ModelAttribute RequestUserFilterDto filter,
+                                                     @PageableDefault(size = 10, sort = "id") Pageable pageable,
+                                                     @RequestParam(defaultValue = "exact") CountMode count,
+                                                     @RequestParam Set<UserField> fields, WebRequest request) {
+        Slice<Map<String, Object>> page = userService.getAllUsers(filter, pageable, count, fields);
+        ResponsePage<Map<String, Object>> body = new ResponsePage<>(page);
         return ResponseEntity.ok()
-            .contentType(MediaType.APPLICATION_JSON)
-            .body(new ResponsePage<>(page));
+            .eTag(tag(EntityTags.forRows(body.getContent(), body.getPage(), body.getSize(), body.getTotalElements(), body.isLast()), request))
+            .body(body);
+    }
+
+    @GetMapping(params = "cursor")
+    @RateLimited(RateLimitTier.QUERY)
+    public ResponseEntity<ResponseWindow<ResponseUserDto>> scrollUsers(@ModelAttribute RequestUserFilterDto filter,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @PageableDefault(size = 10, sort = "id") Pageable pageable, WebRequest request) {
+        Window<ResponseUserDto> window = userService.scrollUsers(filter, cursor, pageable);
+        ResponseWindow<ResponseUserDto> body = new ResponseWindow<>(window);
+        return ResponseEntity.ok()
+            .eTag(tag(EntityTags.forUsers(body.getContent(), body.getNextCursor(), body.isLast()), request))
+            .body(body);
     }
     
+    @GetMapping("/export")
+    @RateLimited(RateLimitTier.QUERY)
+    public ResponseEntity<StreamingResponseBody> exportUsers(@ModelAttribute RequestUserFilterDto filter,
+                                                     @RequestParam(defaultValue = "ndjson") FileFormat format,
+                                                     WebRequest request) {
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        StreamingResponseBody body = out -> userService.exportUsers(filter, format, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.contentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("users." + format.extension()).build().toString())
+            .body(body);
+    }
+
+    @PostMapping("/lookup")
+    @RateLimited(RateLimitTier.READ)
+    public ResponseEntity<ResponseUserLookupDto> lookupUsers(@RequestBody RequestUserLookupDto lookup) {
+        ResponseUserLookupDto result = userService.lookupUsers(lookup);
+        return ResponseEntity.ok()
+            .body(result);
+    }
+
+    // Change feed. after is the last sequence the consumer applied; the response answers at once when changes are
+    // waiting, otherwise after at most wait seconds, possibly with an empty batch.
+    @GetMapping("/changes")
+    @RateLimited(RateLimitTier.READ)
+    public DeferredResult<ResponseUserChangesDto> pollChanges(@RequestParam(defaultValue = "0") long after,
+                                                     @RequestParam(defaultValue = "100") int limit,
+                                                     @RequestParam(defaultValue = "30") long wait) {
+        Duration waitFor = changeFeed.capWait(Duration.ofSeconds(Math.max(0, wait)));
+        // The ticker answers at the deadline; the timeout is only a backstop, with the same empty batch.
+        DeferredResult<ResponseUserChangesDto> result = new DeferredResult<>(waitFor.plusSeconds(5).toMillis(),
+            () -> new ResponseUserChangesDto(List.of(), after));
+        UserChangeFeed.Subscription subscription = changeFeed.await(after, limit, waitFor, result::setResult);
+        result.onCompletion(subscription::cancel);
+        return result;
+    }
+
+    // The same batches as Server-Sent Events, each with the batch's next as its id, so a reconnecting EventSource
+    // resumes from Last-Event-ID. The stream closes after stream-timeout and the client reconnects the same way.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RateLimited(RateLimitTier.READ)
+    public SseEmitter streamChanges(@RequestParam(defaultValue = "0") long after,
+                                    @RequestParam(defaultValue = "100") int limit,
+                                    @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        UserChangeFeed.Subscription subscription = changeFeed.subscribe(lastEventId != null ? lastEventId : after, limit, batch -> {
+            try {
+                emitter.send(SseEmitter.event().id(String.valueOf(batch.next())).name("changes").data(batch));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
     @GetMapping("/{userId}")
-    public ResponseEntity<ResponseUserDto> getUserById(@PathVariable Long userId) {
-        ResponseUserDto user = userService.getUserById(userId);
+    @RateLimited(RateLimitTier.READ)
+    public ResponseEntity<ResponseUserDto> getUserById(@PathVariable Long userId,
+                                                     @RequestParam(defaultValue = "false") boolean includeArchived, WebRequest request) {
+        // Revalidation only needs the version; the user itself is loaded (and serialized) only when it changed.
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            UserVersionDto version = userService.getUserVersion(userId, includeArchived);
+            if (request.checkNotModified(tag(EntityTags.forUser(version.version()), request), EntityTags.lastModified(version.updatedAt()))) {
+                return null;
+            }
+        }
+        ResponseUserDto user = includeArchived ? userService.getUserIncludingArchived(userId) : userService.getUserById(userId);
         return ResponseEntity.ok()
-            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(tag(EntityTags.forUser(user.version()), request))
+            .lastModified(EntityTags.lastModified(user.updatedAt()))
+            .body(user);
+    }
+    
+    // The tag is derived from the selected values, so it differs from the version tag of the full representation.
+    @GetMapping(value = "/{userId}", params = "fields")
+    @RateLimited(RateLimitTier.READ)
+    public ResponseEntity<Map<String, Object>> getUserFieldsById(@PathVariable Long userId, @RequestParam Set<UserField> fields,
+                                                     @RequestParam(defaultValue = "false") boolean includeArchived, WebRequest request) {
+        Map<String, Object> user = userService.getUserById(userId, fields, includeArchived);
+        return ResponseEntity.ok()
+            .eTag(tag(EntityTags.forRows(List.of(user)), request))
             .body(user);
     }
     
     // UPDATE
     @PutMapping("/{userId}")
-    public ResponseEntity<ResponseUserDto> updateUser(@PathVariable Long userId, @Valid @RequestBody RequestUserDto userDto) {
-        ResponseUserDto updated = userService.updateUser(userId, userDto);
+    @RateLimited(RateLimitTier.WRITE)
+    public ResponseEntity<ResponseUserDto> updateUser(@PathVariable Long userId, @Valid @RequestBody RequestUserDto userDto,
+                                                     @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                     WebRequest request) {
+        ResponseUserDto updated = userService.updateUser(userId, userDto, ifMatch == null ? null : EntityTags.version(ifMatch));
         return ResponseEntity.ok()
-            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(tag(EntityTags.forUser(updated.version()), request))
             .body(updated);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<ResponseUserDto> updateUserPartial(@PathVariable Long userId, @Valid @RequestBody RequestUserPatchDto userDto) {
-        ResponseUserDto updated = userService.updateUserPartial(userId, userDto);
+    @RateLimited(RateLimitTier.WRITE)
+    public ResponseEntity<ResponseUserDto> updateUserPartial(@PathVariable Long userId, @Valid @RequestBody RequestUserPatchDto userDto,
+                                                     @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                     WebRequest request) {
+        ResponseUserDto updated = userService.updateUserPartial(userId, userDto, ifMatch == null ? null : EntityTags.version(ifMatch));
         return ResponseEntity.ok()
-            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(tag(EntityTags.forUser(updated.version()), request))
             .body(updated);
     }
 
     // DELETE
     @DeleteMapping("/{userId}")
+    @RateLimited(RateLimitTier.WRITE)
     public ResponseEntity<Void> deleteUser(@PathVariable Long userId) {
         userService.deleteUser(userId);
         return ResponseEntity.noContent().build();
     }
+
+    private static String tag(String tag, WebRequest request) {
+        return EntityTags.forRepresentation(tag, request.getHeader(HttpHeaders.ACCEPT));
+    }
     
 }
@@ -0,0 +1,56 @@
+package com.futurasmus.users_api.infrastructure.datasource;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Remembers which clients wrote within the window, and pins the current thread's reads to the primary while one
+// of them is being served. Per instance: a client balanced onto another node is not pinned there.
+public class ReadYourWrites {
+
+    private final Cache<String, Boolean> recentWriters;
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    public ReadYourWrites(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+            .expireAfterWrite(window)
+            .maximumSize(100_000)
+            .build();
+    }
+
+    public void recordWrite(String client) {
+        recentWriters.put(client, Boolean.TRUE);
+    }
+
+    public boolean recentlyWrote(String client) {
+        return recentWriters.getIfPresent(client) != null;
+    }
+
+    public void pin() {
+        pinned.set(Boolean.TRUE);
+    }
+
+    public void unpin() {
+        pinned.remove();
+    }
+
+    public boolean isPinned() {
+        return pinned.get() != null;
+    }
+
+    // A task submitted from a pinned thread runs pinned, so a request's async work reads what the request does.
+    public Runnable decorate(Runnable task) {
+        if (!isPinned()) {
+            return task;
+        }
+        return () -> {
+            pin();
+            try {
+                task.run();
+            } finally {
+                unpin();
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.futurasmus.users_api.infrastructure.datasource;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.futurasmus.users_api.common.http.ClientIds;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Clients are identified by remote address, or by X-Client-Id when a trusted proxy sends it. A successful unsafe request opens
+// the window; requests from that client inside it read from the primary.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final ReadYourWrites readYourWrites;
+    private final ClientIds clientIds;
+
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites, ClientIds clientIds) {
+        this.readYourWrites = readYourWrites;
+        this.clientIds = clientIds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = clientIds.of(request);
+        boolean pinned = readYourWrites.recentlyWrote(client);
+        if (pinned) {
+            readYourWrites.pin();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (pinned) {
+                readYourWrites.unpin();
+            }
+            if (!SAFE_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+                readYourWrites.recordWrite(client);
+            }
+        }
+    }
+}
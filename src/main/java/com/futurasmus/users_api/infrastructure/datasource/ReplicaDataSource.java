@@ -0,0 +1,94 @@
+package com.futurasmus.users_api.infrastructure.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Connection source for read-only transactions. Replicas are taken round-robin; one that cannot hand out a
+// connection is skipped for the configured downtime. The primary serves the read when every replica is down
+// or the current request is pinned by ReadYourWrites.
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final long downtimeNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+    // System.nanoTime() until which each replica is skipped; 0 while it is up.
+    private final AtomicLongArray downUntil;
+
+    private final Counter[] replicaReads;
+    private final Counter pinnedReads;
+    private final Counter fallbackReads;
+
+    public ReplicaDataSource(DataSource primary, List<? extends DataSource> replicas, ReadYourWrites readYourWrites,
+                             Duration downtime, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWrites = readYourWrites;
+        this.downtimeNanos = downtime.toNanos();
+        this.downUntil = new AtomicLongArray(replicas.size());
+
+        this.replicaReads = new Counter[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaReads[i] = reads(meterRegistry, "replica-" + i, "load-balanced");
+        }
+        this.pinnedReads = reads(meterRegistry, "primary", "read-your-writes");
+        this.fallbackReads = reads(meterRegistry, "primary", "no-replica");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (readYourWrites.isPinned()) {
+            pinnedReads.increment();
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = size == 0 ? 0 : Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            int replica = (start + i) % size;
+            long until = downUntil.get(replica);
+            if (until != 0 && System.nanoTime() - until < 0) {
+                continue;
+            }
+            try {
+                Connection connection = replicas.get(replica).getConnection();
+                downUntil.compareAndSet(replica, until, 0);
+                replicaReads[replica].increment();
+                return connection;
+            } catch (SQLException ex) {
+                log.warn("Replica {} unavailable, skipping it for {} ms: {}", replica, downtimeNanos / 1_000_000, ex.getMessage());
+                downUntil.set(replica, System.nanoTime() + downtimeNanos);
+            }
+        }
+        fallbackReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica credentials are configured per pool");
+    }
+
+    private static Counter reads(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("users.datasource.reads")
+            .description("Connections handed out to read-only transactions")
+            .tag("target", target)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.futurasmus.users_api.infrastructure.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+// Read-only view over live users in both tables, for queries that opt in to archived rows. Filters and sorting
+// are applied to the union, and the database pushes them down into each branch.
+@Data
+@NoArgsConstructor
+@Entity
+@Immutable
+@Subselect("select id, email, first_name, last_name, password, created_at, updated_at, active, verified, version from users where deleted_at is null"
+    + " union all select id, email, first_name, last_name, password, created_at, updated_at, active, verified, version from users_archive where deleted_at is null")
+@Synchronize({"users", "users_archive"})
+public class AnyUserEntity {
+
+    @Id
+    private Long id;
+
+    private String email;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String password;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private Boolean active;
+
+    private Boolean verified;
+
+    private Long version;
+}
@@ -0,0 +1,55 @@
+package com.futurasmus.users_api.infrastructure.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+// Cold storage for users moved out of the users table, keeping their id and version. Rows only arrive through
+// the archiver's INSERT ... SELECT, so there is no id generator, and email is not unique because a deleted
+// user's address may be taken again.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "users_archive", indexes = @Index(name = "users_archive_email_idx", columnList = "email"))
+public class ArchivedUserEntity {
+
+    @Id
+    private Long id;
+
+    private String email;
+
+    private String firstName;
+
+    private String lastName;
+
+    @Column(nullable = false)
+    private String password;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private Boolean active;
+
+    @Column(nullable = false)
+    private Boolean verified;
+
+    @Column(nullable = false)
+    private Long version;
+
+    private LocalDateTime deletedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,73 @@
+package com.futurasmus.users_api.infrastructure.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+import com.futurasmus.users_api.application.dto.UserChangeType;
+
+// One row per committed user write, inserted in the write's own transaction. The id only identifies the row: ids
+// are handed out before commit, so they do not follow commit order. The feed's sequence number is assigned once the
+// row is committed (see UserChangeRepositoryImpl.assignSequences). The user columns are a snapshot taken after the
+// write and stay null for deletions.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "user_changes")
+public class UserChangeEntity {
+
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_changes_seq")
+    @SequenceGenerator(name = "user_changes_seq", sequenceName = "user_changes_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    // Null until the relay numbers the committed row.
+    @Column(unique = true)
+    private Long feedSequence;
+
+    // A plain varchar rather than H2's native enum, so the R2DBC adapter can bind the name as a string.
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private UserChangeType type;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+
+    private String email;
+
+    private String firstName;
+
+    private String lastName;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private Boolean active;
+
+    private Boolean verified;
+}
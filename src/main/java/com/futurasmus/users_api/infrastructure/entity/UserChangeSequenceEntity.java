@@ -0,0 +1,27 @@
+package com.futurasmus.users_api.infrastructure.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// The last feed sequence handed out, in a single row. Numbering locks the row, so committed changes are numbered by
+// one relay at a time across all instances.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "user_change_sequence")
+public class UserChangeSequenceEntity {
+
+    public static final long ID = 1;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long lastSequence;
+}
@@ -7,10 +7,15 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -19,8 +24,12 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.futurasmus.users_api.common.exception.EmailConstraint;
+import com.futurasmus.users_api.infrastructure.repository.search.UserSearchIndexListener;
+
 import jakarta.persistence.Column;
 
 @Data
@@ -29,18 +38,28 @@ import jakarta.persistence.Column;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+// The hot table. Deleted users keep their row, hidden from every entity query, until the archiver moves them to
+// users_archive; the indexes serve the archiver's scans for deleted and long-inactive rows.
 @Entity
-@Table(name = "users")
+@EntityListeners(UserSearchIndexListener.class)
+@SQLRestriction("deleted_at is null")
+@Table(name = "users", uniqueConstraints = @UniqueConstraint(name = EmailConstraint.NAME, columnNames = "email"), indexes = {
+    @Index(name = "users_deleted_at_idx", columnList = "deleted_at"),
+    @Index(name = "users_active_updated_at_idx", columnList = "active, updated_at")
+})
 public class UserEntity {
+
+    // Shared with R2dbcUserRepository, which allocates ids from the same sequence with the same block size.
+    public static final int ID_ALLOCATION_SIZE = 50;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Email
     @NotBlank
     @Size(min = 5, max = 100)
-    @Column(unique = true)
     private String email;
 
     @Size(min = 2, max = 100)
@@ -69,4 +88,11 @@ public class UserEntity {
     @NotNull
     @Column(nullable = false)
     Boolean verified;
+
+    // Bumped on every write; exposed as the ETag and checked against If-Match.
+    @Version
+    @Column(nullable = false)
+    Long version;
+
+    LocalDateTime deletedAt;
 }
@@ -0,0 +1,75 @@
+package com.futurasmus.users_api.infrastructure.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Records how many SQL statements each request issued, tagged like http.server.requests. An async request is
+// recorded when it completes, so the statements of its async work (see StatementCounter.decorate) are included.
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+
+    public StatementCountFilter(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AtomicInteger statements = statementCounter.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            statementCounter.end();
+            if (isAsyncStarted(request)) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, statements.get());
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, statements.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, int statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("users.db.statements")
+            .description("SQL statements executed per HTTP request")
+            .tag("method", request.getMethod())
+            .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+            .tag("status", String.valueOf(response.getStatus()))
+            .register(meterRegistry)
+            .record(statements);
+    }
+}
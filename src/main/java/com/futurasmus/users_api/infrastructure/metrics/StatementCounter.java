@@ -0,0 +1,48 @@
+package com.futurasmus.users_api.infrastructure.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+// Counts the SQL statements Hibernate prepares on the current thread between begin() and end(). decorate() hands
+// the count to a task submitted from that thread, so async request work such as a streamed export is counted too.
+@Component
+public class StatementCounter implements StatementInspector {
+
+    private final ThreadLocal<AtomicInteger> count = new ThreadLocal<>();
+
+    public AtomicInteger begin() {
+        AtomicInteger current = new AtomicInteger();
+        count.set(current);
+        return current;
+    }
+
+    public void end() {
+        count.remove();
+    }
+
+    public Runnable decorate(Runnable task) {
+        AtomicInteger current = count.get();
+        if (current == null) {
+            return task;
+        }
+        return () -> {
+            count.set(current);
+            try {
+                task.run();
+            } finally {
+                count.remove();
+            }
+        };
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger current = count.get();
+        if (current != null) {
+            current.incrementAndGet();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,91 @@
+package com.futurasmus.users_api.infrastructure.metrics;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+// Streams the JFR jdk.VirtualThreadPinned event while virtual threads are on. A pinned virtual thread blocks
+// while holding its carrier (synchronized blocks, native frames), so a few of them can stall every request.
+// Each pinning is timed under users.threads.pinned, tagged with the first frame outside the JDK, and the full
+// stack is logged once per frame.
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> reportedFrames = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${users.threads.pinning.threshold:20ms}") Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+    }
+
+    void record(RecordedEvent event) {
+        String frame = culprit(event);
+        Timer.builder("users.threads.pinned")
+            .description("Time virtual threads spent blocked while pinned to their carrier")
+            .tag("frame", frame)
+            .register(meterRegistry)
+            .record(event.getDuration());
+        if (reportedFrames.add(frame)) {
+            log.warn("Virtual thread pinned for {} ms at {}:\n{}", event.getDuration().toMillis(), frame, stack(event));
+        }
+    }
+
+    // The top frames are the JDK parking or waiting; the first one after them is the code holding the monitor.
+    private static String culprit(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+
+    private static String stack(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "";
+        }
+        return event.getStackTrace().getFrames().stream()
+            .map(f -> "\tat " + f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+            .collect(Collectors.joining("\n"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+}
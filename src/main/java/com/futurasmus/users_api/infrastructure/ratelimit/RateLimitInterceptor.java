@@ -0,0 +1,70 @@
+package com.futurasmus.users_api.infrastructure.ratelimit;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.futurasmus.users_api.common.exception.RateLimitExceededException;
+import com.futurasmus.users_api.common.http.ClientIds;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Runs once the handler is known, so the budget follows the controller method rather than the path. A refused
+// request never reaches the controller; GlobalExceptionHandler turns it into a 429 with Retry-After.
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+    private final ClientIds clientIds;
+    private final Map<String, RateLimitTier> endpoints;
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Optional<RateLimitTier>> tiers = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, ClientIds clientIds, Map<String, RateLimitTier> endpoints,
+                                MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.clientIds = clientIds;
+        this.endpoints = endpoints;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async dispatches (long-polls, streams) run the interceptors again; the request was charged the first time.
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Optional<RateLimitTier> tier = tiers.computeIfAbsent(method.getMethod(), this::tier);
+        if (tier.isEmpty()) {
+            return true;
+        }
+        long waitNanos = rateLimiter.tryAcquire(tier.get(), clientIds.of(request));
+        String tierName = tier.get().name().toLowerCase();
+        meterRegistry.counter("users.rate-limit",
+                "tier", tierName,
+                "operation", method.getMethod().getName(),
+                "outcome", waitNanos == 0 ? "allowed" : "rejected")
+            .increment();
+        if (waitNanos > 0) {
+            // Rounded up: retrying after the advertised seconds always finds a token.
+            throw new RateLimitExceededException(tierName, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+        }
+        return true;
+    }
+
+    private Optional<RateLimitTier> tier(Method method) {
+        RateLimitTier configured = endpoints.get(method.getName());
+        if (configured != null) {
+            return Optional.of(configured);
+        }
+        RateLimited annotation = method.getAnnotation(RateLimited.class);
+        return Optional.ofNullable(annotation != null ? annotation.value() : null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.futurasmus.users_api.infrastructure.ratelimit;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// users.rate-limit.tiers.<tier>.capacity / refill-per-second size each client's bucket for a tier, and
+// users.rate-limit.endpoints.<method name>=<tier> moves an endpoint to another tier. A tier without limits is not
+// limited.
+@ConfigurationProperties("users.rate-limit")
+public record RateLimitProperties(@DefaultValue Map<RateLimitTier, Limit> tiers,
+                                  @DefaultValue Map<String, RateLimitTier> endpoints,
+                                  @DefaultValue("100000") long maxClients) {
+
+    public record Limit(int capacity, double refillPerSecond) {
+    }
+}
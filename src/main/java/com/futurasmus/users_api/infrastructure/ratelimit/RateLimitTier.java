@@ -0,0 +1,9 @@
+package com.futurasmus.users_api.infrastructure.ratelimit;
+
+// Budgets by cost: point reads hit the primary key or the cache, queries filter and count over the table, writes
+// hash a password with BCrypt or change rows.
+public enum RateLimitTier {
+    READ,
+    QUERY,
+    WRITE
+}
@@ -0,0 +1,13 @@
+package com.futurasmus.users_api.infrastructure.ratelimit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Default budget of a controller method; users.rate-limit.endpoints.<method name> overrides it.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    RateLimitTier value();
+}
@@ -0,0 +1,49 @@
+package com.futurasmus.users_api.infrastructure.ratelimit;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.futurasmus.users_api.common.ratelimit.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// One bucket per client and tier. Buckets idle for longer than a full refill are evicted, since a new one starts
+// full anyway; so are the least recently used ones beyond maxClients. Per instance, like the read-your-writes window.
+public class RateLimiter {
+
+    private final Map<RateLimitTier, RateLimitProperties.Limit> limits;
+    private final Map<RateLimitTier, Cache<String, TokenBucket>> buckets = new EnumMap<>(RateLimitTier.class);
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.limits = new EnumMap<>(RateLimitTier.class);
+        this.limits.putAll(properties.tiers());
+        limits.forEach((tier, limit) -> {
+            Duration refill = Duration.ofNanos(Math.round(limit.capacity() * 1_000_000_000L / limit.refillPerSecond()));
+            Cache<String, TokenBucket> cache = Caffeine.newBuilder()
+                .expireAfterAccess(refill)
+                .maximumSize(properties.maxClients())
+                .build();
+            buckets.put(tier, cache);
+            Gauge.builder("users.rate-limit.clients", cache, Cache::estimatedSize)
+                .description("Clients holding a token bucket")
+                .tag("tier", tier.name().toLowerCase())
+                .register(meterRegistry);
+        });
+    }
+
+    // 0 when the request may go ahead, otherwise the nanoseconds until the client has a token for this tier.
+    public long tryAcquire(RateLimitTier tier, String client) {
+        Cache<String, TokenBucket> cache = buckets.get(tier);
+        if (cache == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        RateLimitProperties.Limit limit = limits.get(tier);
+        return cache.get(client, key -> new TokenBucket(limit.capacity(), limit.refillPerSecond(), now))
+            .tryConsume(now);
+    }
+}
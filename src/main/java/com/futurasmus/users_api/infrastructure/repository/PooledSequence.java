@@ -0,0 +1,45 @@
+package com.futurasmus.users_api.infrastructure.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import reactor.core.publisher.Mono;
+
+// Hibernate's pooled optimizer over R2DBC. The sequence steps by the entity's allocationSize and each value is the
+// top of a block: a caller that reads value v owns (v - allocationSize, v]. Following the same rule as the JPA
+// adapter keeps both writers on disjoint blocks of one sequence, and one nextval serves allocationSize inserts.
+class PooledSequence {
+
+    private final DatabaseClient client;
+    private final String name;
+    private final int allocationSize;
+    private long next = 1;
+    private long last;
+
+    PooledSequence(DatabaseClient client, String name, int allocationSize) {
+        this.client = client;
+        this.name = name;
+        this.allocationSize = allocationSize;
+    }
+
+    Mono<Long> next() {
+        return Mono.defer(() -> {
+            Long id = take();
+            return id != null
+                ? Mono.just(id)
+                : client.sql("select nextval('" + name + "')").map(row -> row.get(0, Long.class)).one().map(this::refill);
+        });
+    }
+
+    private synchronized Long take() {
+        return next <= last ? next++ : null;
+    }
+
+    // Ids below 1 are never handed out, so the first block of a fresh sequence only holds its top value. Two
+    // callers refilling at once each keep their own block; the one installed last serves later calls.
+    private synchronized long refill(long top) {
+        long first = Math.max(1, top - allocationSize + 1);
+        next = first + 1;
+        last = top;
+        return first;
+    }
+}
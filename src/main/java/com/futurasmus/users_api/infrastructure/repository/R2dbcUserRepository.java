@@ -0,0 +1,373 @@
+package com.futurasmus.users_api.infrastructure.repository;
+
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.UserChangeType;
+import com.futurasmus.users_api.application.dto.UserVersionDto;
+import com.futurasmus.users_api.domain.model.User;
+import com.futurasmus.users_api.domain.repository.ReactiveUserRepository;
+import com.futurasmus.users_api.domain.repository.UserEmailRepository;
+import com.futurasmus.users_api.infrastructure.entity.UserChangeEntity;
+import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+// R2DBC adapter over the same users table the JPA entity maps. Filters and paging follow UserSpecification and
+// Spring Data: substring matches on lower-cased columns, strict date bounds, sort by entity property names.
+// Deleted rows are skipped like the entity's SQL restriction does; archived users are not read in this mode, but
+// their emails stay taken.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class R2dbcUserRepository implements ReactiveUserRepository, UserEmailRepository {
+
+    private static final String COLUMNS = "id, email, first_name, last_name, created_at, updated_at, active, verified, version";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "id", "id",
+        "email", "email",
+        "firstName", "first_name",
+        "lastName", "last_name",
+        "createdAt", "created_at",
+        "updatedAt", "updated_at",
+        "active", "active",
+        "verified", "verified",
+        "version", "version");
+
+    private final DatabaseClient client;
+    private final TransactionalOperator transactionalOperator;
+    private final TransactionalOperator snapshotReadOperator;
+    private final PooledSequence userIds;
+    private final PooledSequence changeIds;
+
+    public R2dbcUserRepository(DatabaseClient client,
+                               TransactionalOperator transactionalOperator,
+                               @Qualifier("snapshotReadOperator") TransactionalOperator snapshotReadOperator) {
+        this.client = client;
+        this.transactionalOperator = transactionalOperator;
+        this.snapshotReadOperator = snapshotReadOperator;
+        this.userIds = new PooledSequence(client, "users_seq", UserEntity.ID_ALLOCATION_SIZE);
+        this.changeIds = new PooledSequence(client, "user_changes_seq", UserChangeEntity.ID_ALLOCATION_SIZE);
+    }
+
+    // Ids come in blocks from the sequence JPA uses, under the same pooled rule, so both writers can share the
+    // table. A deleted user still holding the email is archived first, as the JPA adapter does.
+    @Override
+    public Mono<User> save(User user) {
+        return archiveDeleted(user.getEmail())
+            .then(insert(user))
+            .as(transactionalOperator::transactional);
+    }
+
+    private Mono<User> insert(User user) {
+        return userIds.next()
+            .flatMap(id -> {
+                LocalDateTime now = now();
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("id", id);
+                values.put("email", user.getEmail());
+                values.put("first_name", user.getFirstName());
+                values.put("last_name", user.getLastName());
+                values.put("password", user.getPassword());
+                values.put("created_at", now);
+                values.put("updated_at", now);
+                values.put("active", user.getActive());
+                values.put("verified", user.getVerified());
+                values.put("version", 0L);
+                String sql = "insert into users (" + String.join(", ", values.keySet()) + ") values (:"
+                    + String.join(", :", values.keySet()) + ")";
+                User saved = new User(id, user.getEmail(), user.getFirstName(), user.getLastName(), user.getPassword(),
+                    now, now, user.getActive(), user.getVerified(), 0L);
+                return bind(client.sql(sql), values).fetch().rowsUpdated()
+                    .then(recordChange(UserChangeType.CREATED, id, new ResponseUserDto(id, saved.getEmail(), saved.getFirstName(),
+                        saved.getLastName(), now, now, saved.getActive(), saved.getVerified(), 0L)))
+                    .thenReturn(saved);
+            });
+    }
+
+    @Override
+    public Mono<ResponseUserDto> replace(Long id, RequestUserDto user, Long expectedVersion) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("email", user.email());
+        changes.put("first_name", user.firstName());
+        changes.put("last_name", user.lastName());
+        changes.put("password", user.password());
+        return update(id, changes, expectedVersion);
+    }
+
+    // Only the columns present in the patch are set, like the coalesce in the JPA statement.
+    @Override
+    public Mono<ResponseUserDto> patch(Long id, RequestUserPatchDto changes, Long expectedVersion) {
+        Map<String, Object> set = new LinkedHashMap<>();
+        putIfNotNull(set, "email", changes.email());
+        putIfNotNull(set, "first_name", changes.firstName());
+        putIfNotNull(set, "last_name", changes.lastName());
+        putIfNotNull(set, "password", changes.password());
+        return update(id, set, expectedVersion);
+    }
+
+    @Override
+    public Mono<ResponseUserDto> findResponseById(Long id) {
+        return client.sql("select " + COLUMNS + " from users where id = :id and deleted_at is null")
+            .bind("id", id)
+            .map(R2dbcUserRepository::toResponse)
+            .one();
+    }
+
+    @Override
+    public Mono<UserVersionDto> findVersionById(Long id) {
+        return client.sql("select version, updated_at from users where id = :id and deleted_at is null")
+            .bind("id", id)
+            .map(row -> new UserVersionDto(row.get("version", Long.class), row.get("updated_at", LocalDateTime.class)))
+            .one();
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return client.sql("select 1 from users where email = :email and deleted_at is null"
+                + " union all select 1 from users_archive where email = :email and deleted_at is null")
+            .bind("email", email)
+            .map(row -> true)
+            .first()
+            .defaultIfEmpty(false);
+    }
+
+    // Content first, then the count, in one read-only snapshot: both run on the same connection and see the same
+    // rows, so the total always matches the content even while other requests write.
+    @Override
+    public Mono<Page<ResponseUserDto>> findAllResponses(RequestUserFilterDto filter, Pageable pageable) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = where(filter, params);
+        Mono<Long> total = bind(client.sql("select count(*) from users" + where), params)
+            .map(row -> row.get(0, Long.class))
+            .one();
+        String sql = "select " + COLUMNS + " from users" + where + orderBy(pageable.getSort());
+        if (pageable.isPaged()) {
+            sql += " limit :limit offset :offset";
+            params.put("limit", pageable.getPageSize());
+            params.put("offset", pageable.getOffset());
+        }
+        Mono<List<ResponseUserDto>> content = bind(client.sql(sql), params)
+            .map(R2dbcUserRepository::toResponse)
+            .all()
+            .collectList();
+        return content.zipWhen(rows -> total)
+            .<Page<ResponseUserDto>>map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()))
+            .as(snapshotReadOperator::transactional);
+    }
+
+    // Only for the email filter's rebuild, which runs once at startup on the main thread, never on an event loop.
+    @Override
+    public long count() {
+        return client.sql("select count(*) from users where deleted_at is null")
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .blockOptional()
+            .orElse(0L);
+    }
+
+    // The same emails as the JPA adapter: live and deleted rows in the hot table, live archived users.
+    @Override
+    public void forEachEmail(Consumer<String> action) {
+        client.sql("select email from users union all select email from users_archive where deleted_at is null")
+            .map(row -> row.get(0, String.class))
+            .all()
+            .doOnNext(action)
+            .blockLast();
+    }
+
+    // Soft delete in whichever table holds the user, like the JPA adapter.
+    @Override
+    public Mono<Boolean> deleteById(Long id) {
+        LocalDateTime now = now();
+        return softDelete("users", id, now)
+            .flatMap(deleted -> deleted > 0 ? Mono.just(deleted) : softDelete("users_archive", id, now))
+            .flatMap(deleted -> deleted == 0 ? Mono.just(false) : recordChange(UserChangeType.DELETED, id, null).thenReturn(true))
+            .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Long> softDelete(String table, Long id, LocalDateTime now) {
+        return client.sql("update " + table + " set deleted_at = :deleted_at, version = version + 1 where id = :id and deleted_at is null")
+            .bind("deleted_at", now)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Boolean> existsArchivedByEmail(String email) {
+        return client.sql("select 1 from users_archive where email = :email and deleted_at is null")
+            .bind("email", email)
+            .map(row -> true)
+            .first()
+            .defaultIfEmpty(false);
+    }
+
+    @Override
+    public Mono<Boolean> archiveDeletedByEmail(String email) {
+        return archiveDeleted(email).as(transactionalOperator::transactional);
+    }
+
+    // The row is locked first so the archiver cannot copy it at the same time.
+    private Mono<Boolean> archiveDeleted(String email) {
+        return client.sql("select id from users where email = :email and deleted_at is not null for update")
+            .bind("email", email)
+            .map(row -> row.get("id", Long.class))
+            .first()
+            .flatMap(id -> client.sql("insert into users_archive (" + COLUMNS + ", password, deleted_at, archived_at) select " + COLUMNS
+                    + ", password, deleted_at, :archived_at from users where id = :id")
+                .bind("archived_at", now())
+                .bind("id", id)
+                .fetch().rowsUpdated()
+                .then(client.sql("delete from users where id = :id").bind("id", id).fetch().rowsUpdated()))
+            .map(deleted -> deleted > 0)
+            .defaultIfEmpty(false);
+    }
+
+    // Same statement shape as the JPA adapter: one UPDATE guarded by the expected version and archived emails, then a
+    // projection read.
+    private Mono<ResponseUserDto> update(Long id, Map<String, Object> changes, Long expectedVersion) {
+        Map<String, Object> params = new LinkedHashMap<>(changes);
+        StringJoiner set = new StringJoiner(", ", "update users set ", "");
+        changes.keySet().forEach(column -> set.add(column + " = :" + column));
+        set.add("updated_at = :updated_at").add("version = version + 1");
+        params.put("updated_at", now());
+        params.put("id", id);
+        String sql = set + " where id = :id and deleted_at is null";
+        if (expectedVersion != null) {
+            sql += " and version = :expected_version";
+            params.put("expected_version", expectedVersion);
+        }
+        if (changes.containsKey("email")) {
+            sql += " and not exists (select 1 from users_archive where email = :email and deleted_at is null)";
+        }
+        return bind(client.sql(sql), params).fetch().rowsUpdated()
+            .flatMap(updated -> updated == 0 ? Mono.<ResponseUserDto>empty() : findResponseById(id))
+            .flatMap(updated -> recordChange(UserChangeType.UPDATED, id, updated).thenReturn(updated))
+            .as(transactionalOperator::transactional);
+    }
+
+    // The same change log row the JPA adapter writes, in the same transaction as the user write.
+    private Mono<Void> recordChange(UserChangeType type, Long userId, ResponseUserDto user) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("type", type.name());
+        values.put("user_id", userId);
+        values.put("changed_at", now());
+        if (user != null) {
+            values.put("version", user.version());
+            values.put("email", user.email());
+            values.put("first_name", user.firstName());
+            values.put("last_name", user.lastName());
+            values.put("created_at", user.createdAt());
+            values.put("updated_at", user.updatedAt());
+            values.put("active", user.active());
+            values.put("verified", user.verified());
+        }
+        return changeIds.next().flatMap(id -> {
+            String sql = "insert into user_changes (id, " + String.join(", ", values.keySet()) + ") values (:id, :"
+                + String.join(", :", values.keySet()) + ")";
+            return bind(client.sql(sql), values).bind("id", id).fetch().rowsUpdated();
+        }).then();
+    }
+
+    private static String where(RequestUserFilterDto filter, Map<String, Object> params) {
+        List<String> clauses = new ArrayList<>();
+        clauses.add("deleted_at is null");
+        like(clauses, params, "email", filter.email(), false);
+        like(clauses, params, "email", filter.notEmail(), true);
+        like(clauses, params, "first_name", filter.firstName(), false);
+        like(clauses, params, "first_name", filter.notFirstName(), true);
+        like(clauses, params, "last_name", filter.lastName(), false);
+        like(clauses, params, "last_name", filter.notLastName(), true);
+        compare(clauses, params, "created_at", "<", filter.createdBefore());
+        compare(clauses, params, "created_at", ">", filter.createdAfter());
+        compare(clauses, params, "updated_at", "<", filter.updatedBefore());
+        compare(clauses, params, "updated_at", ">", filter.updatedAfter());
+        compare(clauses, params, "active", "=", filter.active());
+        compare(clauses, params, "verified", "=", filter.verified());
+        return " where " + String.join(" and ", clauses);
+    }
+
+    private static void like(List<String> clauses, Map<String, Object> params, String column, String value, boolean negate) {
+        if (value != null) {
+            String param = "p" + params.size();
+            clauses.add("lower(" + column + ")" + (negate ? " not like :" : " like :") + param);
+            params.put(param, "%" + value.toLowerCase() + "%");
+        }
+    }
+
+    private static void compare(List<String> clauses, Map<String, Object> params, String column, String operator, Object value) {
+        if (value != null) {
+            String param = "p" + params.size();
+            clauses.add(column + " " + operator + " :" + param);
+            params.put(param, value);
+        }
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Cannot sort users by " + order.getProperty());
+            }
+            orderBy.add(column + (order.isAscending() ? " asc" : " desc"));
+        }
+        return orderBy.toString();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> params) {
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = param.getValue() == null
+                ? spec.bindNull(param.getKey(), String.class)
+                : spec.bind(param.getKey(), param.getValue());
+        }
+        return spec;
+    }
+
+    private static void putIfNotNull(Map<String, Object> values, String column, Object value) {
+        if (value != null) {
+            values.put(column, value);
+        }
+    }
+
+    private static ResponseUserDto toResponse(Readable row) {
+        return new ResponseUserDto(
+            row.get("id", Long.class),
+            row.get("email", String.class),
+            row.get("first_name", String.class),
+            row.get("last_name", String.class),
+            row.get("created_at", LocalDateTime.class),
+            row.get("updated_at", LocalDateTime.class),
+            row.get("active", Boolean.class),
+            row.get("verified", Boolean.class),
+            row.get("version", Long.class));
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
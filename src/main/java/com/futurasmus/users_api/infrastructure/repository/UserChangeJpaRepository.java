@@ -0,0 +1,36 @@
+package com.futurasmus.users_api.infrastructure.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.futurasmus.users_api.infrastructure.entity.UserChangeEntity;
+
+public interface UserChangeJpaRepository extends JpaRepository<UserChangeEntity, Long> {
+    List<UserChangeEntity> findByFeedSequenceGreaterThanOrderByFeedSequenceAsc(Long feedSequence, Limit limit);
+
+    boolean existsByFeedSequenceIsNull();
+
+    List<UserChangeEntity> findByFeedSequenceIsNullOrderByChangedAtAscIdAsc(Limit limit);
+
+    List<UserChangeEntity> findByFeedSequenceIsNullAndUserIdIn(Collection<Long> userIds);
+
+    @Query("select min(c.feedSequence) from UserChangeEntity c where c.changedAt >= :since")
+    Optional<Long> findFirstFeedSequenceSince(LocalDateTime since);
+
+    @Query("select c.id from UserChangeEntity c where c.feedSequence < :feedSequence order by c.feedSequence")
+    List<Long> findIdsByFeedSequenceLessThan(long feedSequence, Limit limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from UserChangeEntity c where c.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    @Query("select coalesce(max(c.feedSequence), 0) from UserChangeEntity c")
+    long findLastFeedSequence();
+}
@@ -0,0 +1,123 @@
+package com.futurasmus.users_api.infrastructure.repository;
+
+import com.futurasmus.users_api.application.dto.ResponseUserChangeDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.UserChangeType;
+import com.futurasmus.users_api.domain.repository.UserChangeRepository;
+import com.futurasmus.users_api.infrastructure.entity.UserChangeEntity;
+import com.futurasmus.users_api.infrastructure.entity.UserChangeSequenceEntity;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class UserChangeRepositoryImpl implements UserChangeRepository {
+
+    // A deletion carries no version and is always a user's last change.
+    private static final Comparator<UserChangeEntity> VERSION_ORDER = Comparator
+        .comparing(UserChangeEntity::getVersion, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(UserChangeEntity::getChangedAt)
+        .thenComparing(UserChangeEntity::getId);
+    private static final Comparator<UserChangeEntity> WRITE_ORDER = Comparator
+        .comparing(UserChangeEntity::getChangedAt)
+        .thenComparing(UserChangeEntity::getId);
+
+    private final UserChangeJpaRepository jpaRepository;
+    private final UserChangeSequenceJpaRepository sequenceRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResponseUserChangeDto> findAfter(long sequence, int limit) {
+        return jpaRepository.findByFeedSequenceGreaterThanOrderByFeedSequenceAsc(sequence, Limit.of(limit)).stream()
+            .map(UserChangeRepositoryImpl::toResponse)
+            .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long lastSequence() {
+        return jpaRepository.findLastFeedSequence();
+    }
+
+    // Numbers committed changes that have no sequence yet, oldest write first. The sequence row stays locked until
+    // commit, so a relay only starts numbering after the previous one's numbers are visible: sequences become visible
+    // in order, and a change committed late simply gets a later sequence instead of leaving a gap behind consumers.
+    @Override
+    @Transactional
+    public int assignSequences(int limit) {
+        if (!jpaRepository.existsByFeedSequenceIsNull()) {
+            return 0;
+        }
+        UserChangeSequenceEntity sequence = sequenceRepository.lockById(UserChangeSequenceEntity.ID)
+            .orElseGet(this::createSequence);
+        List<UserChangeEntity> pending = pending(limit);
+        long last = sequence.getLastSequence();
+        for (UserChangeEntity change : pending) {
+            change.setFeedSequence(++last);
+        }
+        sequence.setLastSequence(last);
+        return pending.size();
+    }
+
+    // Drops the oldest numbered changes, up to the first one written since before. Only a prefix of the feed goes and
+    // the newest change always stays, so lastSequence holds and the feed can tell a cursor behind the cut by the gap.
+    @Override
+    @Transactional
+    public int prune(LocalDateTime before, int limit) {
+        long last = jpaRepository.findLastFeedSequence();
+        long keep = jpaRepository.findFirstFeedSequenceSince(before).map(first -> Math.min(first, last)).orElse(last);
+        List<Long> ids = jpaRepository.findIdsByFeedSequenceLessThan(keep, Limit.of(limit));
+        return ids.isEmpty() ? 0 : jpaRepository.deleteAllByIdIn(ids);
+    }
+
+    // changedAt is taken before a write waits for the row lock, so two updates of one user can carry it in the
+    // opposite order of their versions. Each user's changes keep the slots their changedAt gives them but fill them in
+    // version order, and all of a user's pending changes are numbered together so a limit never splits them.
+    private List<UserChangeEntity> pending(int limit) {
+        List<UserChangeEntity> oldest = jpaRepository.findByFeedSequenceIsNullOrderByChangedAtAscIdAsc(Limit.of(limit));
+        if (oldest.isEmpty()) {
+            return oldest;
+        }
+        Set<Long> userIds = oldest.stream().map(UserChangeEntity::getUserId).collect(Collectors.toSet());
+        List<UserChangeEntity> changes = jpaRepository.findByFeedSequenceIsNullAndUserIdIn(userIds).stream()
+            .sorted(WRITE_ORDER)
+            .toList();
+        Map<Long, Deque<UserChangeEntity>> byUser = changes.stream()
+            .sorted(VERSION_ORDER)
+            .collect(Collectors.groupingBy(UserChangeEntity::getUserId, LinkedHashMap::new, Collectors.toCollection(ArrayDeque::new)));
+        return changes.stream().map(change -> byUser.get(change.getUserId()).poll()).toList();
+    }
+
+    // Persisted rather than merged: when two relays create the row at once, the second fails on the primary key
+    // instead of resetting the first one's count.
+    private UserChangeSequenceEntity createSequence() {
+        UserChangeSequenceEntity sequence = new UserChangeSequenceEntity(UserChangeSequenceEntity.ID, 0L);
+        entityManager.persist(sequence);
+        entityManager.flush();
+        return sequence;
+    }
+
+    private static ResponseUserChangeDto toResponse(UserChangeEntity change) {
+        ResponseUserDto user = change.getType() == UserChangeType.DELETED ? null : new ResponseUserDto(
+            change.getUserId(), change.getEmail(), change.getFirstName(), change.getLastName(),
+            change.getCreatedAt(), change.getUpdatedAt(), change.getActive(), change.getVerified(), change.getVersion());
+        return new ResponseUserChangeDto(change.getFeedSequence(), change.getType(), change.getUserId(), change.getVersion(), change.getChangedAt(), user);
+    }
+}
@@ -0,0 +1,17 @@
+package com.futurasmus.users_api.infrastructure.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import com.futurasmus.users_api.infrastructure.entity.UserChangeSequenceEntity;
+
+import jakarta.persistence.LockModeType;
+
+public interface UserChangeSequenceJpaRepository extends JpaRepository<UserChangeSequenceEntity, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from UserChangeSequenceEntity s where s.id = :id")
+    Optional<UserChangeSequenceEntity> lockById(Long id);
+}
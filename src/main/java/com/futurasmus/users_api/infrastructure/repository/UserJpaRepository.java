@@ -1,16 +1,112 @@
 package com.futurasmus.users_api.infrastructure.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.UserVersionDto;
 import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+import com.futurasmus.users_api.infrastructure.repository.search.UserSearchDocument;
 
-public interface UserJpaRepository extends JpaRepository<UserEntity, Long>, JpaSpecificationExecutor<UserEntity> {
+import jakarta.persistence.QueryHint;
+
+public interface UserJpaRepository extends JpaRepository<UserEntity, Long>, JpaSpecificationExecutor<UserEntity>, UserQueryRepository {
     Optional<UserEntity> findByEmail(String email);
     Page<UserEntity> findAll(Specification<UserEntity> spec, Pageable pageable);
+
+    @Query("select new com.futurasmus.users_api.application.dto.ResponseUserDto(u.id, u.email, u.firstName, u.lastName, u.createdAt, u.updatedAt, u.active, u.verified, u.version) from UserEntity u where u.id = :id")
+    Optional<ResponseUserDto> findResponseById(Long id);
+
+    @Query("select new com.futurasmus.users_api.application.dto.UserVersionDto(u.version, u.updatedAt) from UserEntity u where u.id = :id")
+    Optional<UserVersionDto> findVersionById(Long id);
+
+    // A null expectedVersion writes unconditionally; otherwise the row only matches while its version is unchanged.
+    // Archived users keep their emails, which the users table's unique key cannot see, so the statement itself
+    // refuses to take one.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserEntity u set u.email = :email, u.firstName = :firstName, u.lastName = :lastName, u.password = :password, u.updatedAt = :updatedAt, u.version = u.version + 1 where u.id = :id and u.deletedAt is null and (:expectedVersion is null or u.version = :expectedVersion) and not exists (select 1 from ArchivedUserEntity a where a.email = :email and a.deletedAt is null)")
+    int replace(Long id, Long expectedVersion, String email, String firstName, String lastName, String password, LocalDateTime updatedAt);
+
+    // Null arguments keep the current value.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserEntity u set u.email = coalesce(:email, u.email), u.firstName = coalesce(:firstName, u.firstName), u.lastName = coalesce(:lastName, u.lastName), u.password = coalesce(:password, u.password), u.updatedAt = :updatedAt, u.version = u.version + 1 where u.id = :id and u.deletedAt is null and (:expectedVersion is null or u.version = :expectedVersion) and (:email is null or not exists (select 1 from ArchivedUserEntity a where a.email = :email and a.deletedAt is null))")
+    int patch(Long id, Long expectedVersion, String email, String firstName, String lastName, String password, LocalDateTime updatedAt);
+
+    // Soft delete: the row stays, hidden by the entity's restriction, until the archiver moves it.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserEntity u set u.deletedAt = :deletedAt, u.version = u.version + 1 where u.id = :id and u.deletedAt is null")
+    int softDeleteById(Long id, LocalDateTime deletedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ArchivedUserEntity u set u.deletedAt = :deletedAt, u.version = u.version + 1 where u.id = :id and u.deletedAt is null")
+    int softDeleteArchivedById(Long id, LocalDateTime deletedAt);
+
+    @Query("select new com.futurasmus.users_api.application.dto.ResponseUserDto(u.id, u.email, u.firstName, u.lastName, u.createdAt, u.updatedAt, u.active, u.verified, u.version) from ArchivedUserEntity u where u.id = :id and u.deletedAt is null")
+    Optional<ResponseUserDto> findArchivedResponseById(Long id);
+
+    @Query("select u.email from ArchivedUserEntity u where u.email in :emails and u.deletedAt is null")
+    List<String> findArchivedEmails(Collection<String> emails);
+
+    // Archiver scans. Native, because the entity restriction hides deleted rows from JPQL; FOR UPDATE keeps the
+    // selected rows unchanged until they are copied and removed in the same transaction.
+    @Query(value = "select id from users where deleted_at < :deletedBefore limit :limit for update", nativeQuery = true)
+    List<Long> lockDeletedIds(LocalDateTime deletedBefore, int limit);
+
+    @Query(value = "select id from users where deleted_at is null and active = false and updated_at < :inactiveBefore limit :limit for update", nativeQuery = true)
+    List<Long> lockInactiveIds(LocalDateTime inactiveBefore, int limit);
+
+    @Query(value = "select id from users where deleted_at is not null and email in :emails for update", nativeQuery = true)
+    List<Long> lockDeletedIdsByEmails(Collection<String> emails);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into users_archive (id, email, first_name, last_name, password, created_at, updated_at, active, verified, version, deleted_at, archived_at)"
+        + " select id, email, first_name, last_name, password, created_at, updated_at, active, verified, version, deleted_at, :archivedAt from users where id in :ids", nativeQuery = true)
+    int copyToArchive(Collection<Long> ids, LocalDateTime archivedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from users where id in :ids", nativeQuery = true)
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    // Restore, the way back from the archive: lock, copy back, remove.
+    @Query(value = "select version from users_archive where id = :id and deleted_at is null for update", nativeQuery = true)
+    List<Long> lockArchivedVersion(Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into users (id, email, first_name, last_name, password, created_at, updated_at, active, verified, version)"
+        + " select id, email, first_name, last_name, password, created_at, updated_at, active, verified, version from users_archive where id = :id", nativeQuery = true)
+    int copyFromArchive(Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from users_archive where id = :id", nativeQuery = true)
+    int deleteArchivedById(Long id);
+
+    @Query("select new com.futurasmus.users_api.application.dto.ResponseUserDto(u.id, u.email, u.firstName, u.lastName, u.createdAt, u.updatedAt, u.active, u.verified, u.version) from UserEntity u where u.id in :ids")
+    List<ResponseUserDto> findResponsesByIds(Collection<Long> ids);
+
+    @Query("select new com.futurasmus.users_api.application.dto.ResponseUserDto(u.id, u.email, u.firstName, u.lastName, u.createdAt, u.updatedAt, u.active, u.verified, u.version) from UserEntity u where u.email in :emails")
+    List<ResponseUserDto> findResponsesByEmails(Collection<String> emails);
+
+    @Query("select u.email from UserEntity u where u.email in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    // Every email a new user cannot simply take: live and deleted rows in the hot table, live archived users.
+    @Query(value = "select email from users union all select email from users_archive where deleted_at is null", nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<String> streamAllEmails();
+
+    @Query("select new com.futurasmus.users_api.infrastructure.repository.search.UserSearchDocument(u.id, u.email, u.firstName, u.lastName) from UserEntity u")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<UserSearchDocument> streamSearchDocuments();
 }
@@ -0,0 +1,38 @@
+package com.futurasmus.users_api.infrastructure.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.futurasmus.users_api.application.dto.CountMode;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+
+// The entity argument selects the table: UserEntity for the hot users, AnyUserEntity to include archived ones.
+public interface UserQueryRepository {
+    <T> Page<ResponseUserDto> findAllResponses(Class<T> entity, Specification<T> spec, Pageable pageable);
+    <T> Page<ResponseUserDto> findAllWithWindowCount(Class<T> entity, Specification<T> spec, Pageable pageable);
+    <T> Slice<ResponseUserDto> findResponseSlice(Class<T> entity, Specification<T> spec, Pageable pageable);
+    <T> Window<ResponseUserDto> scrollResponses(Class<T> entity, Specification<T> spec, KeysetScrollPosition position, Sort sort, int limit);
+    <T> Stream<ResponseUserDto> streamResponses(Class<T> entity, Specification<T> spec, int fetchSize);
+    <T> Slice<Map<String, Object>> findFields(Class<T> entity, Specification<T> spec, Pageable pageable, List<String> fields, CountMode count);
+
+    // UPDATE ... RETURNING, for databases that support it: columns maps column names to new values, and an empty
+    // result means no row matched the id and expectedVersion, or the new email belongs to an archived user.
+    boolean supportsUpdateReturning();
+    Optional<ResponseUserDto> updateReturning(Long id, Long expectedVersion, Map<String, String> columns, LocalDateTime updatedAt);
+
+    default Page<ResponseUserDto> findAllResponses(Specification<UserEntity> spec, Pageable pageable) {
+        return findAllResponses(UserEntity.class, spec, pageable);
+    }
+}
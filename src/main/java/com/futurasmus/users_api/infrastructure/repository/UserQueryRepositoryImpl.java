@@ -0,0 +1,284 @@
+package com.futurasmus.users_api.infrastructure.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.futurasmus.users_api.application.dto.CountMode;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.UserField;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+
+// Read queries select the ResponseUserDto columns straight into the record: no managed entities, no password hash.
+@RequiredArgsConstructor
+public class UserQueryRepositoryImpl implements UserQueryRepository {
+
+    private static final String TOTAL_ALIAS = "total";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public <T> Page<ResponseUserDto> findAllResponses(Class<T> entity, Specification<T> spec, Pageable pageable) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<ResponseUserDto> query = cb.createQuery(ResponseUserDto.class);
+        Root<T> root = query.from(entity);
+        where(query, spec.toPredicate(root, query, cb));
+        query.select(response(cb, root));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<ResponseUserDto> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(entity, spec));
+    }
+
+    // Selects count(*) over () next to every row so the total comes back with the page in one statement.
+    @Override
+    public <T> Page<ResponseUserDto> findAllWithWindowCount(Class<T> entity, Specification<T> spec, Pageable pageable) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entity);
+        where(query, spec.toPredicate(root, query, cb));
+        query.multiselect(response(cb, root), cb.windowFunction("count", Long.class, cb.createWindow(), cb.literal(1)));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Tuple> rows = typedQuery.getResultList();
+        List<ResponseUserDto> content = rows.stream().map(row -> row.get(0, ResponseUserDto.class)).toList();
+        long total = !rows.isEmpty() ? rows.get(0).get(1, Long.class)
+            : pageable.isPaged() && pageable.getOffset() > 0 ? count(entity, spec) : 0;
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    // Reads one row past the page to learn whether there is a next slice without counting.
+    @Override
+    public <T> Slice<ResponseUserDto> findResponseSlice(Class<T> entity, Specification<T> spec, Pageable pageable) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<ResponseUserDto> query = cb.createQuery(ResponseUserDto.class);
+        Root<T> root = query.from(entity);
+        where(query, spec.toPredicate(root, query, cb));
+        query.select(response(cb, root));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<ResponseUserDto> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        List<ResponseUserDto> rows = typedQuery.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    // Keyset scrolling: the rows after the position's keys in sort order, plus one to learn whether more follow.
+    // The next position is read from the DTO, so the window needs no entity either.
+    @Override
+    public <T> Window<ResponseUserDto> scrollResponses(Class<T> entity, Specification<T> spec, KeysetScrollPosition position, Sort sort, int limit) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<ResponseUserDto> query = cb.createQuery(ResponseUserDto.class);
+        Root<T> root = query.from(entity);
+        Predicate filter = spec.toPredicate(root, query, cb);
+        Predicate after = position.isInitial() ? null : after(cb, root, sort, position.getKeys());
+        where(query, filter == null ? after : after == null ? filter : cb.and(filter, after));
+        query.select(response(cb, root));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        List<ResponseUserDto> rows = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+        List<ResponseUserDto> content = rows.size() > limit ? rows.subList(0, limit) : rows;
+        Set<UserField> keys = sort.stream().map(order -> UserField.of(order.getProperty()))
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        return Window.from(content, index -> ScrollPosition.forward(UserField.select(content.get(index), keys)), rows.size() > limit);
+    }
+
+    // Forward-only result stream ordered by id; rows are DTOs, so nothing accumulates in the persistence context.
+    @Override
+    public <T> Stream<ResponseUserDto> streamResponses(Class<T> entity, Specification<T> spec, int fetchSize) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<ResponseUserDto> query = cb.createQuery(ResponseUserDto.class);
+        Root<T> root = query.from(entity);
+        where(query, spec.toPredicate(root, query, cb));
+        query.select(response(cb, root));
+        query.orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+
+    // Sparse fieldsets: only the requested columns are selected, and each row becomes a map keyed by property name.
+    // Paging follows the count mode of the full-row queries above.
+    @Override
+    public <T> Slice<Map<String, Object>> findFields(Class<T> entity, Specification<T> spec, Pageable pageable, List<String> fields, CountMode count) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entity);
+        where(query, spec.toPredicate(root, query, cb));
+        List<Selection<?>> selections = new ArrayList<>(fields.size() + 1);
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        boolean windowCount = count == CountMode.WINDOW && pageable.isPaged();
+        if (windowCount) {
+            selections.add(cb.windowFunction("count", Long.class, cb.createWindow(), cb.literal(1)).alias(TOTAL_ALIAS));
+        }
+        query.multiselect(selections);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList().stream().map(row -> row(row, fields)).toList(), pageable, false);
+        }
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(count == CountMode.NONE ? pageable.getPageSize() + 1 : pageable.getPageSize());
+        List<Tuple> rows = typedQuery.getResultList();
+        List<Map<String, Object>> content = rows.stream().limit(pageable.getPageSize()).map(row -> row(row, fields)).toList();
+        return switch (count) {
+            case NONE -> new SliceImpl<>(content, pageable, rows.size() > pageable.getPageSize());
+            case WINDOW -> new PageImpl<>(content, pageable, !rows.isEmpty() ? rows.get(0).get(TOTAL_ALIAS, Long.class)
+                : pageable.getOffset() > 0 ? count(entity, spec) : 0);
+            case EXACT -> PageableExecutionUtils.getPage(content, pageable, () -> count(entity, spec));
+        };
+    }
+
+    @Override
+    public boolean supportsUpdateReturning() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    // Native SQL, since HQL has no RETURNING clause. Like the @Modifying updates, pending changes are flushed first
+    // and the persistence context is cleared afterwards so no managed entity keeps the old state.
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<ResponseUserDto> updateReturning(Long id, Long expectedVersion, Map<String, String> columns, LocalDateTime updatedAt) {
+        StringJoiner set = new StringJoiner(", ", "update users set ", "");
+        columns.keySet().forEach(column -> set.add(column + " = :" + column));
+        set.add("updated_at = :updated_at").add("version = version + 1");
+        String sql = set + " where id = :id and deleted_at is null"
+            + (expectedVersion != null ? " and version = :expected_version" : "")
+            + (columns.containsKey("email") ? " and not exists (select 1 from users_archive where email = :email and deleted_at is null)" : "")
+            + " returning id, email, first_name, last_name, created_at, updated_at, active, verified, version";
+
+        entityManager.flush();
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+            .addScalar("id", Long.class)
+            .addScalar("email", String.class)
+            .addScalar("first_name", String.class)
+            .addScalar("last_name", String.class)
+            .addScalar("created_at", LocalDateTime.class)
+            .addScalar("updated_at", LocalDateTime.class)
+            .addScalar("active", Boolean.class)
+            .addScalar("verified", Boolean.class)
+            .addScalar("version", Long.class);
+        columns.forEach((column, value) -> query.setParameter(column, value, String.class));
+        query.setParameter("updated_at", updatedAt);
+        query.setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("expected_version", expectedVersion);
+        }
+        List<Object[]> rows = query.getResultList();
+        entityManager.clear();
+        return rows.stream().findFirst().map(row -> new ResponseUserDto((Long) row[0], (String) row[1], (String) row[2],
+            (String) row[3], (LocalDateTime) row[4], (LocalDateTime) row[5], (Boolean) row[6], (Boolean) row[7], (Long) row[8]));
+    }
+
+    private static Map<String, Object> row(Tuple tuple, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, tuple.get(field));
+        }
+        return row;
+    }
+
+    private <T> long count(Class<T> entity, Specification<T> spec) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entity);
+        where(query, spec.toPredicate(root, query, cb));
+        query.select(cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private HibernateCriteriaBuilder criteriaBuilder() {
+        return entityManager.unwrap(Session.class).getCriteriaBuilder();
+    }
+
+    private static void where(CriteriaQuery<?> query, Predicate predicate) {
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    // (k1 > v1) or (k1 = v1 and k2 > v2) or ..., with < for descending orders.
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Predicate after(HibernateCriteriaBuilder cb, Root<?> root, Sort sort, Map<String, Object> keys) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalSoFar = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Expression<Comparable> key = root.get(order.getProperty());
+            Comparable value = (Comparable) keys.get(order.getProperty());
+            List<Predicate> alternative = new ArrayList<>(equalSoFar);
+            alternative.add(order.isAscending() ? cb.greaterThan(key, value) : cb.lessThan(key, value));
+            alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            equalSoFar.add(cb.equal(key, value));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+
+    private static CompoundSelection<ResponseUserDto> response(HibernateCriteriaBuilder cb, Root<?> root) {
+        return cb.construct(ResponseUserDto.class,
+            root.get("id"),
+            root.get("email"),
+            root.get("firstName"),
+            root.get("lastName"),
+            root.get("createdAt"),
+            root.get("updatedAt"),
+            root.get("active"),
+            root.get("verified"),
+            root.get("version"));
+    }
+}
@@ -1,33 +1,167 @@
 package com.futurasmus.users_api.infrastructure.repository;
 
+import com.futurasmus.users_api.application.dto.CountMode;
+import com.futurasmus.users_api.application.dto.RequestUserDto;
 import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.UserChangeType;
+import com.futurasmus.users_api.application.dto.UserField;
+import com.futurasmus.users_api.application.dto.UserVersionDto;
 import com.futurasmus.users_api.common.mapper.UserMapper;
 import com.futurasmus.users_api.domain.model.User;
 import com.futurasmus.users_api.domain.repository.UserRepository;
+import com.futurasmus.users_api.infrastructure.entity.AnyUserEntity;
+import com.futurasmus.users_api.infrastructure.entity.UserChangeEntity;
 import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+import com.futurasmus.users_api.infrastructure.repository.search.UserSearchDocument;
+import com.futurasmus.users_api.infrastructure.repository.search.UserSearchIndex;
 import com.futurasmus.users_api.infrastructure.repository.spec.UserSpecification;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Timed("users.repository")
 @RequiredArgsConstructor
 public class UserRepositoryImpl implements UserRepository {
 
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
     private final UserJpaRepository jpaRepository;
     private final UserMapper mapper;
+    private final EntityManager entityManager;
+    private final UserSearchIndex searchIndex;
+    private final UserChangeJpaRepository changeRepository;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
 
+    @Value("${users.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    // Every write also appends to the change log in the same transaction, so the feed has exactly the committed writes.
     @Override
     @Transactional
     public User save(User user) {
         UserEntity entity = mapper.toEntity(user);
-        UserEntity saved = jpaRepository.save(entity);
-        return mapper.toDomain(saved);
+        UserChangeType type = entity.getId() == null ? UserChangeType.CREATED : UserChangeType.UPDATED;
+        UserEntity saved = jpaRepository.saveAndFlush(entity);
+        User domain = mapper.toDomain(saved);
+        changeRepository.save(change(type, mapper.toResponse(domain)));
+        return domain;
+    }
+
+    // Flushes and clears every JDBC batch so the persistence context stays small for large imports.
+    @Override
+    @Transactional
+    public List<User> saveAll(List<User> users) {
+        List<User> saved = new ArrayList<>(users.size());
+        for (int from = 0; from < users.size(); from += batchSize) {
+            List<UserEntity> chunk = users.subList(from, Math.min(from + batchSize, users.size())).stream()
+                .map(mapper::toEntity)
+                .toList();
+            List<UserEntity> persisted = jpaRepository.saveAll(chunk);
+            entityManager.flush();
+            List<UserChangeEntity> changes = new ArrayList<>(persisted.size());
+            for (UserEntity entity : persisted) {
+                User user = mapper.toDomain(entity);
+                saved.add(user);
+                changes.add(change(UserChangeType.CREATED, mapper.toResponse(user)));
+            }
+            changeRepository.saveAll(changes);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return saved;
+    }
+
+    // A single UPDATE: conflicts come back from the unique constraint and a zero row count means the row is
+    // missing or no longer at expectedVersion. On PostgreSQL it returns the new row; elsewhere the row is read back.
+    // Bulk statements bypass @UpdateTimestamp and the entity listeners, so both are applied here.
+    // An archived user is still live: when the UPDATE misses, it is moved back to users and the UPDATE retried.
+    @Override
+    @Transactional
+    public Optional<ResponseUserDto> replace(Long id, RequestUserDto user, Long expectedVersion) {
+        Optional<ResponseUserDto> updated = replaceRow(id, user, expectedVersion);
+        if (updated.isEmpty() && restore(id, expectedVersion)) {
+            updated = replaceRow(id, user, expectedVersion);
+        }
+        return recordUpdate(reindex(updated));
+    }
+
+    @Override
+    @Transactional
+    public Optional<ResponseUserDto> patch(Long id, RequestUserPatchDto changes, Long expectedVersion) {
+        Optional<ResponseUserDto> updated = patchRow(id, changes, expectedVersion);
+        if (updated.isEmpty() && restore(id, expectedVersion)) {
+            updated = patchRow(id, changes, expectedVersion);
+        }
+        return recordUpdate(reindex(updated));
+    }
+
+    private Optional<ResponseUserDto> replaceRow(Long id, RequestUserDto user, Long expectedVersion) {
+        if (jpaRepository.supportsUpdateReturning()) {
+            Map<String, String> columns = new LinkedHashMap<>();
+            columns.put("email", user.email());
+            columns.put("first_name", user.firstName());
+            columns.put("last_name", user.lastName());
+            columns.put("password", user.password());
+            return jpaRepository.updateReturning(id, expectedVersion, columns, now());
+        }
+        int updated = jpaRepository.replace(id, expectedVersion, user.email(), user.firstName(), user.lastName(), user.password(), now());
+        return updated == 0 ? Optional.empty() : jpaRepository.findResponseById(id);
+    }
+
+    private Optional<ResponseUserDto> patchRow(Long id, RequestUserPatchDto changes, Long expectedVersion) {
+        if (jpaRepository.supportsUpdateReturning()) {
+            Map<String, String> columns = new LinkedHashMap<>();
+            putIfNotNull(columns, "email", changes.email());
+            putIfNotNull(columns, "first_name", changes.firstName());
+            putIfNotNull(columns, "last_name", changes.lastName());
+            putIfNotNull(columns, "password", changes.password());
+            return jpaRepository.updateReturning(id, expectedVersion, columns, now());
+        }
+        int updated = jpaRepository.patch(id, expectedVersion, changes.email(), changes.firstName(), changes.lastName(), changes.password(), now());
+        return updated == 0 ? Optional.empty() : jpaRepository.findResponseById(id);
+    }
+
+    // A stale expectedVersion leaves the user in the archive, as the UPDATE would not match it either.
+    private boolean restore(Long id, Long expectedVersion) {
+        List<Long> version = jpaRepository.lockArchivedVersion(id);
+        if (version.isEmpty() || (expectedVersion != null && !expectedVersion.equals(version.get(0)))) {
+            return false;
+        }
+        jpaRepository.copyFromArchive(id);
+        jpaRepository.deleteArchivedById(id);
+        return true;
     }
 
     @Override
@@ -36,6 +170,24 @@ public class UserRepositoryImpl implements UserRepository {
         return jpaRepository.findById(id).map(mapper::toDomain);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ResponseUserDto> findResponseById(Long id) {
+        return jpaRepository.findResponseById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserVersionDto> findVersionById(Long id) {
+        return jpaRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ResponseUserDto> findArchivedResponseById(Long id) {
+        return jpaRepository.findArchivedResponseById(id);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
@@ -44,14 +196,216 @@ public class UserRepositoryImpl implements UserRepository {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<User> findAll(RequestUserFilterDto filter, Pageable pageable) {
-        var spec = UserSpecification.withFilters(filter);
-        return jpaRepository.findAll(spec, pageable).map(mapper::toDomain);
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        List<String> pending = List.copyOf(emails);
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < pending.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            existing.addAll(jpaRepository.findExistingEmails(pending.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, pending.size()))));
+        }
+        return existing;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> findArchivedEmails(Collection<String> emails) {
+        return new HashSet<>(inChunks(List.copyOf(emails), jpaRepository::findArchivedEmails));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResponseUserDto> findResponsesByIds(Collection<Long> ids) {
+        return inChunks(List.copyOf(ids), jpaRepository::findResponsesByIds);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResponseUserDto> findResponsesByEmails(Collection<String> emails) {
+        return inChunks(List.copyOf(emails), jpaRepository::findResponsesByEmails);
+    }
+
+    // Filtered reads hit the users table unless the filter opts in to archived users.
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ResponseUserDto> findAllResponses(RequestUserFilterDto filter, Pageable pageable) {
+        return filter.includesArchived()
+            ? jpaRepository.findAllResponses(AnyUserEntity.class, anyUserSpecification(filter), pageable)
+            : jpaRepository.findAllResponses(UserEntity.class, specification(filter), pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ResponseUserDto> findAllWithWindowCount(RequestUserFilterDto filter, Pageable pageable) {
+        return filter.includesArchived()
+            ? jpaRepository.findAllWithWindowCount(AnyUserEntity.class, anyUserSpecification(filter), pageable)
+            : jpaRepository.findAllWithWindowCount(UserEntity.class, specification(filter), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ResponseUserDto> findSlice(RequestUserFilterDto filter, Pageable pageable) {
+        return filter.includesArchived()
+            ? jpaRepository.findResponseSlice(AnyUserEntity.class, anyUserSpecification(filter), pageable)
+            : jpaRepository.findResponseSlice(UserEntity.class, specification(filter), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> findFields(RequestUserFilterDto filter, Pageable pageable, Set<UserField> fields, CountMode count) {
+        return filter.includesArchived()
+            ? jpaRepository.findFields(AnyUserEntity.class, anyUserSpecification(filter), pageable, properties(fields), count)
+            : jpaRepository.findFields(UserEntity.class, specification(filter), pageable, properties(fields), count);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> findFieldsById(Long id, Set<UserField> fields) {
+        Specification<UserEntity> spec = UserSpecification.idIn(List.of(id));
+        return jpaRepository.findFields(UserEntity.class, spec, Pageable.unpaged(), properties(fields), CountMode.NONE).stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<ResponseUserDto> findWindow(RequestUserFilterDto filter, KeysetScrollPosition position, Sort sort, int limit) {
+        return filter.includesArchived()
+            ? jpaRepository.scrollResponses(AnyUserEntity.class, anyUserSpecification(filter), position, sort, limit)
+            : jpaRepository.scrollResponses(UserEntity.class, specification(filter), position, sort, limit);
+    }
+
+    // A user already in the archive is marked there, so a delete never needs to wait for the row to be moved.
+    @Override
+    @Transactional
+    public boolean deleteById(Long id) {
+        LocalDateTime now = now();
+        boolean deleted = jpaRepository.softDeleteById(id, now) > 0 || jpaRepository.softDeleteArchivedById(id, now) > 0;
+        if (deleted) {
+            searchIndex.remove(id);
+            changeRepository.save(removal(UserChangeType.DELETED, id, now));
+        }
+        return deleted;
+    }
+
+    // Frees emails still held by deleted rows, so a new user can take them before the archiver gets there.
+    @Override
+    @Transactional
+    public int archiveDeleted(Collection<String> emails) {
+        List<Long> ids = inChunks(List.copyOf(emails), jpaRepository::lockDeletedIdsByEmails);
+        moveToArchive(ids);
+        return ids.size();
+    }
+
+    // One chunk: deleted rows first, then long-inactive ones, copied and removed in a single short transaction.
+    // Deleted rows already published DELETED; inactive ones leave the default reads here but still exist, so the
+    // same transaction records an ARCHIVED change carrying their state.
     @Override
     @Transactional
-    public void deleteById(Long id) {
-        jpaRepository.deleteById(id);
+    public List<Long> archive(LocalDateTime deletedBefore, LocalDateTime inactiveBefore, int limit) {
+        List<Long> ids = new ArrayList<>(jpaRepository.lockDeletedIds(deletedBefore, limit));
+        List<Long> inactive = ids.size() < limit ? jpaRepository.lockInactiveIds(inactiveBefore, limit - ids.size()) : List.of();
+        List<ResponseUserDto> archived = inChunks(inactive, jpaRepository::findResponsesByIds);
+        ids.addAll(inactive);
+        moveToArchive(ids);
+        changeRepository.saveAll(archived.stream().map(user -> change(UserChangeType.ARCHIVED, user)).toList());
+        return ids;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long count() {
+        return jpaRepository.count();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachEmail(Consumer<String> action) {
+        try (Stream<String> emails = jpaRepository.streamAllEmails()) {
+            emails.forEach(action);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUser(RequestUserFilterDto filter, Consumer<ResponseUserDto> action) {
+        Stream<ResponseUserDto> stream = filter.includesArchived()
+            ? jpaRepository.streamResponses(AnyUserEntity.class, anyUserSpecification(filter), exportFetchSize)
+            : jpaRepository.streamResponses(UserEntity.class, specification(filter), exportFetchSize);
+        try (Stream<ResponseUserDto> users = stream) {
+            users.forEach(action);
+        }
+    }
+
+    private static List<String> properties(Set<UserField> fields) {
+        return fields.stream().map(UserField::property).toList();
+    }
+
+    private static <K, R> List<R> inChunks(List<K> keys, Function<List<K>, List<R>> query) {
+        List<R> results = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            results.addAll(query.apply(keys.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, keys.size()))));
+        }
+        return results;
+    }
+
+    private void moveToArchive(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+            jpaRepository.copyToArchive(chunk, now());
+            jpaRepository.deleteAllByIdIn(chunk);
+        }
+        ids.forEach(searchIndex::remove);
+    }
+
+    private static void putIfNotNull(Map<String, String> columns, String column, String value) {
+        if (value != null) {
+            columns.put(column, value);
+        }
+    }
+
+    private Optional<ResponseUserDto> reindex(Optional<ResponseUserDto> user) {
+        user.ifPresent(u -> searchIndex.index(new UserSearchDocument(u.id(), u.email(), u.firstName(), u.lastName())));
+        return user;
+    }
+
+    private Optional<ResponseUserDto> recordUpdate(Optional<ResponseUserDto> user) {
+        user.ifPresent(u -> changeRepository.save(change(UserChangeType.UPDATED, u)));
+        return user;
+    }
+
+    private static UserChangeEntity removal(UserChangeType type, Long id, LocalDateTime now) {
+        return UserChangeEntity.builder()
+            .type(type)
+            .userId(id)
+            .changedAt(now)
+            .build();
+    }
+
+    private static UserChangeEntity change(UserChangeType type, ResponseUserDto user) {
+        return UserChangeEntity.builder()
+            .type(type)
+            .userId(user.id())
+            .version(user.version())
+            .changedAt(now())
+            .email(user.email())
+            .firstName(user.firstName())
+            .lastName(user.lastName())
+            .createdAt(user.createdAt())
+            .updatedAt(user.updatedAt())
+            .active(user.active())
+            .verified(user.verified())
+            .build();
+    }
+
+    // Same precision Hibernate uses for @UpdateTimestamp, so ETags match what the database stores.
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private Specification<UserEntity> specification(RequestUserFilterDto filter) {
+        return UserSpecification.<UserEntity>withFilters(filter)
+            .and(UserSpecification.idIn(searchIndex.candidates(filter).orElse(null)));
+    }
+
+    // The search index only covers the users table, so archived rows are matched by the LIKE predicates alone.
+    private static Specification<AnyUserEntity> anyUserSpecification(RequestUserFilterDto filter) {
+        return UserSpecification.withFilters(filter);
     }
 }
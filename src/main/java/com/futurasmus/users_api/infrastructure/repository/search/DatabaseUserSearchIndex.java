@@ -0,0 +1,30 @@
+package com.futurasmus.users_api.infrastructure.repository.search;
+
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+
+// Relies on the pg_trgm GIN indexes from db/postgresql/trigram-indexes.sql to serve the LIKE '%x%' filters.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "users.search.ngram.enabled", havingValue = "false", matchIfMissing = true)
+public class DatabaseUserSearchIndex implements UserSearchIndex {
+
+    @Override
+    public Optional<Set<Long>> candidates(RequestUserFilterDto filter) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void index(UserSearchDocument document) {
+    }
+
+    @Override
+    public void remove(Long id) {
+    }
+}
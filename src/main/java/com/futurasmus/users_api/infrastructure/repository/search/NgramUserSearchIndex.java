@@ -0,0 +1,237 @@
+package com.futurasmus.users_api.infrastructure.repository.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.ResponseUserChangeDto;
+import com.futurasmus.users_api.application.dto.ResponseUserChangesDto;
+import com.futurasmus.users_api.application.dto.UserChangeType;
+import com.futurasmus.users_api.application.service.UserChangeFeed;
+import com.futurasmus.users_api.infrastructure.repository.UserJpaRepository;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+// In-memory trigram index for databases without trigram support (H2). It only narrows the candidate ids;
+// the LIKE predicates still run, so stale entries can widen a result set but never add wrong rows.
+// Local writes reach it through the JPA listener as soon as their transaction commits, so a rollback never leaves
+// postings behind. Every instance also follows the change feed from the sequence its startup snapshot covers, so
+// other instances' and reactive writes are indexed within the feed's poll-interval; until then a search on this
+// instance can miss them.
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "users.search.ngram.enabled", havingValue = "true")
+public class NgramUserSearchIndex implements UserSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final UserJpaRepository jpaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final UserChangeFeed changeFeed;
+    private final int maxCandidates;
+
+    private final Map<Long, UserSearchDocument> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> emailGrams = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> firstNameGrams = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> lastNameGrams = new ConcurrentHashMap<>();
+
+    public NgramUserSearchIndex(UserJpaRepository jpaRepository,
+                                TransactionTemplate transactionTemplate,
+                                EntityManager entityManager,
+                                UserChangeFeed changeFeed,
+                                @Value("${users.search.ngram.max-candidates:1000}") int maxCandidates) {
+        this.jpaRepository = jpaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.changeFeed = changeFeed;
+        this.maxCandidates = maxCandidates;
+    }
+
+    // Changes up to sequence committed before the snapshot is read; replaying later ones that it already contains is harmless.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        long sequence = changeFeed.lastSequence();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<UserSearchDocument> all = jpaRepository.streamSearchDocuments()) {
+                all.forEach(this::put);
+            }
+        });
+        log.info("N-gram search index built with {} users in {} ms", documents.size(), (System.nanoTime() - start) / 1_000_000);
+        changeFeed.subscribe(sequence, Integer.MAX_VALUE, this::apply);
+    }
+
+    @Override
+    public Optional<Set<Long>> candidates(RequestUserFilterDto filter) {
+        // Pending inserts only reach the index through @PostPersist, so flush them as the query's auto-flush would.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        List<Set<Long>> matches = new ArrayList<>();
+        match(emailGrams, filter.email()).ifPresent(matches::add);
+        match(firstNameGrams, filter.firstName()).ifPresent(matches::add);
+        match(lastNameGrams, filter.lastName()).ifPresent(matches::add);
+        if (matches.isEmpty()) {
+            return Optional.empty();
+        }
+        Set<Long> candidates = intersect(matches);
+        // The transaction's own uncommitted writes are not in the postings yet; the LIKE decides whether they match.
+        pending().ifPresent(pending -> candidates.addAll(pending.ids));
+        return candidates.size() > maxCandidates ? Optional.empty() : Optional.of(candidates);
+    }
+
+    @Override
+    public void index(UserSearchDocument document) {
+        afterCommit(document.id(), () -> put(document));
+    }
+
+    @Override
+    public void remove(Long id) {
+        afterCommit(id, () -> evict(id));
+    }
+
+    private void afterCommit(Long id, Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        PendingChanges pending = pending().orElseGet(() -> {
+            PendingChanges created = new PendingChanges();
+            TransactionSynchronizationManager.registerSynchronization(created);
+            return created;
+        });
+        pending.ids.add(id);
+        pending.changes.add(change);
+    }
+
+    // Looked up among the current transaction's synchronizations, so a REQUIRES_NEW transaction keeps its own.
+    private Optional<PendingChanges> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.empty();
+        }
+        return TransactionSynchronizationManager.getSynchronizations().stream()
+            .filter(PendingChanges.class::isInstance)
+            .map(PendingChanges.class::cast)
+            .filter(pending -> pending.owner() == this)
+            .findFirst();
+    }
+
+    private void put(UserSearchDocument document) {
+        documents.compute(document.id(), (id, previous) -> {
+            if (previous != null) {
+                unindex(previous);
+            }
+            add(emailGrams, document.email(), id);
+            add(firstNameGrams, document.firstName(), id);
+            add(lastNameGrams, document.lastName(), id);
+            return document;
+        });
+    }
+
+    private void evict(Long id) {
+        documents.computeIfPresent(id, (key, previous) -> {
+            unindex(previous);
+            return null;
+        });
+    }
+
+    private boolean apply(ResponseUserChangesDto batch) {
+        for (ResponseUserChangeDto change : batch.changes()) {
+            if (change.user() == null || change.type() == UserChangeType.ARCHIVED) {
+                evict(change.userId());
+            } else {
+                put(new UserSearchDocument(change.userId(), change.user().email(), change.user().firstName(), change.user().lastName()));
+            }
+        }
+        return true;
+    }
+
+    private void unindex(UserSearchDocument document) {
+        drop(emailGrams, document.email(), document.id());
+        drop(firstNameGrams, document.firstName(), document.id());
+        drop(lastNameGrams, document.lastName(), document.id());
+    }
+
+    private Optional<Set<Long>> match(Map<String, Set<Long>> postings, String term) {
+        if (term == null || term.length() < GRAM) {
+            return Optional.empty();
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(term)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null || ids.isEmpty()) {
+                return Optional.of(Set.of());
+            }
+            lists.add(ids);
+        }
+        return Optional.of(intersect(lists));
+    }
+
+    private static Set<Long> intersect(List<Set<Long>> sets) {
+        sets.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.retainAll(sets.get(i));
+        }
+        return result;
+    }
+
+    private static void add(Map<String, Set<Long>> postings, String value, Long id) {
+        if (value != null) {
+            grams(value).forEach(gram -> postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id));
+        }
+    }
+
+    private static void drop(Map<String, Set<Long>> postings, String value, Long id) {
+        if (value != null) {
+            grams(value).forEach(gram -> postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            }));
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        String normalized = value.toLowerCase();
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final Set<Long> ids = new HashSet<>();
+        private final List<Runnable> changes = new ArrayList<>();
+
+        private NgramUserSearchIndex owner() {
+            return NgramUserSearchIndex.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            changes.forEach(Runnable::run);
+        }
+    }
+}
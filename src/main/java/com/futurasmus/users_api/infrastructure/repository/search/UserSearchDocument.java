@@ -0,0 +1,9 @@
+package com.futurasmus.users_api.infrastructure.repository.search;
+
+public record UserSearchDocument(
+    Long id,
+    String email,
+    String firstName,
+    String lastName
+) {
+}
@@ -0,0 +1,16 @@
+package com.futurasmus.users_api.infrastructure.repository.search;
+
+import java.util.Optional;
+import java.util.Set;
+
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+
+public interface UserSearchIndex {
+
+    // Empty means "no narrowing": the LIKE predicates are evaluated by the database on their own.
+    Optional<Set<Long>> candidates(RequestUserFilterDto filter);
+
+    void index(UserSearchDocument document);
+
+    void remove(Long id);
+}
@@ -0,0 +1,33 @@
+package com.futurasmus.users_api.infrastructure.repository.search;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Resolved lazily because Hibernate instantiates entity listeners while the EntityManagerFactory is still being built,
+// and slices such as @DataJpaTest run without any search index at all.
+@Component
+public class UserSearchIndexListener {
+
+    private final ObjectProvider<UserSearchIndex> searchIndex;
+
+    public UserSearchIndexListener(ObjectProvider<UserSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(UserEntity user) {
+        searchIndex.ifAvailable(index -> index.index(new UserSearchDocument(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName())));
+    }
+
+    @PostRemove
+    public void onRemove(UserEntity user) {
+        searchIndex.ifAvailable(index -> index.remove(user.getId()));
+    }
+}
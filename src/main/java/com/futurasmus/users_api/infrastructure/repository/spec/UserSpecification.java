@@ -1,15 +1,16 @@
 package com.futurasmus.users_api.infrastructure.repository.spec;
 
-import com.futurasmus.users_api.infrastructure.entity.UserEntity;
 import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 import org.springframework.data.jpa.domain.Specification;
 
+// Typed per query root: the same filters run against the users table and the view that includes archived users.
 public class UserSpecification {
 
-    public static Specification<UserEntity> withFilters(RequestUserFilterDto filters) {
+    public static <T> Specification<T> withFilters(RequestUserFilterDto filters) {
         return Specification.allOf(
             emailContains(filters.email()),
             emailNotContains(filters.notEmail()),
@@ -26,62 +27,68 @@ public class UserSpecification {
         );
     }
 
-    private static Specification<UserEntity> emailContains(String email) {
+    // Restricts the query to ids pre-selected by a search index; an empty set matches nothing.
+    public static <T> Specification<T> idIn(Collection<Long> ids) {
+        return (root, query, cb) ->
+                ids == null ? null : ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    private static <T> Specification<T> emailContains(String email) {
         return (root, query, cb) ->
                 email == null ? null : cb.like(cb.lower(root.get("email")), "%" + email.toLowerCase() + "%");
     }
 
-    private static Specification<UserEntity> emailNotContains(String email) {
+    private static <T> Specification<T> emailNotContains(String email) {
         return (root, query, cb) ->
                 email == null ? null : cb.notLike(cb.lower(root.get("email")), "%" + email.toLowerCase() + "%");
     }
 
-    private static Specification<UserEntity> firstNameContains(String firstName) {
+    private static <T> Specification<T> firstNameContains(String firstName) {
         return (root, query, cb) ->
                 firstName == null ? null : cb.like(cb.lower(root.get("firstName")), "%" + firstName.toLowerCase() + "%");
     }
 
-    private static Specification<UserEntity> firstNameNotContains(String firstName) {
+    private static <T> Specification<T> firstNameNotContains(String firstName) {
         return (root, query, cb) ->
                 firstName == null ? null : cb.notLike(cb.lower(root.get("firstName")), "%" + firstName.toLowerCase() + "%");
     }
 
-    private static Specification<UserEntity> lastNameContains(String lastName) {
+    private static <T> Specification<T> lastNameContains(String lastName) {
         return (root, query, cb) ->
                 lastName == null ? null : cb.like(cb.lower(root.get("lastName")), "%" + lastName.toLowerCase() + "%");
     }
 
-    private static Specification<UserEntity> lastNameNotContains(String lastName) {
+    private static <T> Specification<T> lastNameNotContains(String lastName) {
         return (root, query, cb) ->
                 lastName == null ? null : cb.notLike(cb.lower(root.get("lastName")), "%" + lastName.toLowerCase() + "%");
     }
 
-    private static Specification<UserEntity> createdAtBefore(LocalDateTime createdAt) {
+    private static <T> Specification<T> createdAtBefore(LocalDateTime createdAt) {
         return (root, query, cb) ->
                 createdAt == null ? null : cb.lessThan(root.get("createdAt"), createdAt);
     }
 
-    private static Specification<UserEntity> createdAtAfter(LocalDateTime createdAt) {
+    private static <T> Specification<T> createdAtAfter(LocalDateTime createdAt) {
         return (root, query, cb) ->
                 createdAt == null ? null : cb.greaterThan(root.get("createdAt"), createdAt);
     }
 
-    private static Specification<UserEntity> updatedAtBefore(LocalDateTime updatedAt) {
+    private static <T> Specification<T> updatedAtBefore(LocalDateTime updatedAt) {
         return (root, query, cb) ->
                 updatedAt == null ? null : cb.lessThan(root.get("updatedAt"), updatedAt);
     }
 
-    private static Specification<UserEntity> updatedAtAfter(LocalDateTime updatedAt) {
+    private static <T> Specification<T> updatedAtAfter(LocalDateTime updatedAt) {
         return (root, query, cb) ->
                 updatedAt == null ? null : cb.greaterThan(root.get("updatedAt"), updatedAt);
     }
 
-    private static Specification<UserEntity> isActive(Boolean active) {
+    private static <T> Specification<T> isActive(Boolean active) {
         return (root, query, cb) ->
                 active == null ? null : cb.equal(root.get("active"), active);
     }
 
-    private static Specification<UserEntity> isVerified(Boolean verified) {
+    private static <T> Specification<T> isVerified(Boolean verified) {
         return (root, query, cb) ->
                 verified == null ? null : cb.equal(root.get("verified"), verified);
     }
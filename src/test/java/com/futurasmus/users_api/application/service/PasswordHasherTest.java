@@ -0,0 +1,76 @@
+package com.futurasmus.users_api.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.futurasmus.users_api.common.exception.HashingCapacityExceededException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hash:" + rawPassword);
+        }
+    };
+
+    private final PasswordHasher hasher = new PasswordHasher(blockingEncoder, new SimpleMeterRegistry(), 1, 1, 3);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hasher.shutdown();
+    }
+
+    @Test
+    void encode_shouldReturnHashFromDelegate() {
+        // Arrange
+        release.countDown();
+
+        // Action / Assert
+        assertEquals("hash:password", hasher.encode("password"));
+        assertEquals(List.of("hash:a", "hash:b", "hash:c"), hasher.encodeAll(List.of("a", "b", "c")));
+    }
+
+    @Test
+    void encode_withFullQueue_shouldFailFast() throws Exception {
+        // Arrange
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("running"));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("queued"));
+        Thread.sleep(100);
+
+        // Action / Assert
+        HashingCapacityExceededException ex = assertThrows(HashingCapacityExceededException.class, () -> hasher.encode("rejected"));
+        assertEquals(3, ex.getRetryAfterSeconds());
+
+        release.countDown();
+        assertEquals("hash:running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:queued", queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,131 @@
+package com.futurasmus.users_api.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.futurasmus.users_api.common.exception.UserNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ReadCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReadCoalescer coalescer = new ReadCoalescer(TransactionOperations.withoutTransaction(), () -> false, meterRegistry, true);
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void read_withConcurrentIdenticalKeys_shouldRunOnceAndShareTheResult() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Object result = new Object();
+
+        // Action
+        List<Future<Object>> reads = new ArrayList<>();
+        reads.add(executor.submit(() -> coalescer.read("getUserById", 1L, () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return result;
+        })));
+        started.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 7; i++) {
+            reads.add(executor.submit(() -> coalescer.read("getUserById", 1L, () -> {
+                executions.incrementAndGet();
+                return new Object();
+            })));
+        }
+        while (followers() < 7) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // Assert
+        for (Future<Object> read : reads) {
+            assertSame(result, read.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1, meterRegistry.counter("users.coalescing", "operation", "getUserById", "role", "leader").count());
+    }
+
+    @Test
+    void read_whenLeaderFails_shouldThrowTheSameExceptionToFollowers() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = executor.submit(() -> coalescer.read("getUserById", 2L, () -> {
+            started.countDown();
+            await(release);
+            throw new UserNotFoundException(2L);
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        // Action
+        Future<Object> follower = executor.submit(() -> coalescer.read("getUserById", 2L, Object::new));
+        while (followers() < 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // Assert
+        Exception failure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof UserNotFoundException);
+        assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void read_afterForget_shouldStartANewFlight() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> before = executor.submit(() -> coalescer.read("getAllUsers", "query", () -> {
+            started.countDown();
+            await(release);
+            return "before write";
+        }));
+        started.await(5, TimeUnit.SECONDS);
+
+        // Action
+        coalescer.forget("getAllUsers");
+        Object after = coalescer.read("getAllUsers", "query", () -> "after write");
+        release.countDown();
+
+        // Assert
+        assertEquals("after write", after);
+        assertEquals("before write", before.get(5, TimeUnit.SECONDS));
+    }
+
+    private double followers() {
+        return meterRegistry.find("users.coalescing").tag("role", "follower").counters().stream()
+            .mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,38 +1,59 @@
 package com.futurasmus.users_api.application.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doAnswer;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.futurasmus.users_api.application.dto.RequestUserDto;
 import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserLookupDto;
 import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseBatchItemDto;
 import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.ResponseUserLookupDto;
+import com.futurasmus.users_api.application.dto.UserVersionDto;
 import com.futurasmus.users_api.common.exception.EmailAlreadyExistsException;
 import com.futurasmus.users_api.common.exception.UserNotFoundException;
+import com.futurasmus.users_api.common.exception.UserVersionMismatchException;
 import com.futurasmus.users_api.common.mapper.UserMapper;
 import com.futurasmus.users_api.domain.model.User;
 import com.futurasmus.users_api.domain.repository.UserRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
 
@@ -46,22 +67,74 @@ public class UserServiceTest {
     private UserMapper mapper;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EmailBloomFilter emailFilter;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private UserChangeFeed changeFeed;
+
+    @Spy
+    private ReadCoalescer readCoalescer = new ReadCoalescer(TransactionOperations.withoutTransaction(), () -> false, new SimpleMeterRegistry(), true);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(emailFilter.mightContain(anyString())).thenReturn(true);
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
     
 
     // --- CREATE ---
     @Test
+    void createUsers_whenAConcurrentInsertTakesAnEmail_shouldRejectOnlyThatRow() {
+        // Arrange
+        ReflectionTestUtils.setField(userService, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(userService, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        User first = new User(null, "first@example.com", "First", "User", "hash", null, null, true, false, null);
+        User taken = new User(null, "taken@example.com", "Taken", "User", "hash", null, null, true, false, null);
+        User saved = new User(1L, "first@example.com", "First", "User", "hash", null, null, true, false, 0L);
+        ResponseUserDto response = new ResponseUserDto(1L, "first@example.com", "First", "User", null, null, true, false, 0L);
+
+        when(passwordHasher.encodeAll(List.of("password123", "password123"))).thenReturn(List.of("hash", "hash"));
+        when(mapper.toDomain(any(RequestUserDto.class))).thenReturn(first, taken);
+        when(userRepository.saveAll(List.of(first, taken))).thenThrow(new DataIntegrityViolationException("uk_users_email"));
+        when(userRepository.save(first)).thenReturn(saved);
+        when(userRepository.save(taken)).thenThrow(new DataIntegrityViolationException("uk_users_email"));
+        when(mapper.toResponse(saved)).thenReturn(response);
+
+        // Action
+        List<ResponseBatchItemDto> results = userService.createUsers(List.of(
+            new RequestUserDto("first@example.com", "First", "User", "password123"),
+            new RequestUserDto("taken@example.com", "Taken", "User", "password123")));
+
+        // Assert
+        assertEquals(List.of(ResponseBatchItemDto.created(0, response), ResponseBatchItemDto.conflict(1, "taken@example.com")), results);
+        verify(emailFilter).put("first@example.com");
+        verify(emailFilter, never()).put("taken@example.com");
+    }
+    @Test
     void createUser_withCorrectUserDto_shouldReturn_ResponseUserDto() {
         // Arrange
         RequestUserDto userDto = new RequestUserDto("test@example.com", "Test", "User", "password");
-        User user = new User(1L, "test@example.com", "Test", "User", "password", null, null, true, false);
-        ResponseUserDto responseUserDto = new ResponseUserDto(1L, "test@example.com", "Test", "User", null, null, true, false);
+        User user = new User(1L, "test@example.com", "Test", "User", "password", null, null, true, false, null);
+        ResponseUserDto responseUserDto = new ResponseUserDto(1L, "test@example.com", "Test", "User", null, null, true, false, null);
         
         when(userRepository.findByEmail(userDto.email().toLowerCase())).thenReturn(Optional.empty());
         when(mapper.toDomain(userDto)).thenReturn(user);
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(mapper.toResponse(user)).thenReturn(responseUserDto);
-        when(passwordEncoder.encode(userDto.password())).thenReturn(userDto.password());
+        when(passwordHasher.encode(userDto.password())).thenReturn(userDto.password());
         
         // Action
         ResponseUserDto result = userService.createUser(userDto);
@@ -70,21 +143,45 @@ public class UserServiceTest {
         assertEquals(responseUserDto, result);
         
         verify(userRepository).findByEmail(userDto.email().toLowerCase());
-        verify(passwordEncoder).encode(userDto.password());
+        verify(passwordHasher).encode(userDto.password());
         verify(mapper).toDomain(userDto);
         verify(userRepository).save(any(User.class));
         verify(mapper).toResponse(user);
     }
     
+    // --- CREATE: email not in filter ---
+    @Test
+    void createUser_withEmailAbsentFromFilter_shouldSkipEmailLookup() {
+        // Arrange
+        RequestUserDto userDto = new RequestUserDto("new@example.com", "Test", "User", "password");
+        User user = new User(1L, "new@example.com", "Test", "User", "password", null, null, true, false, null);
+        ResponseUserDto responseUserDto = new ResponseUserDto(1L, "new@example.com", "Test", "User", null, null, true, false, null);
+
+        when(emailFilter.mightContain("new@example.com")).thenReturn(false);
+        when(mapper.toDomain(userDto)).thenReturn(user);
+        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(mapper.toResponse(user)).thenReturn(responseUserDto);
+        when(passwordHasher.encode(userDto.password())).thenReturn(userDto.password());
+
+        // Action
+        ResponseUserDto result = userService.createUser(userDto);
+
+        // Assert
+        assertEquals(responseUserDto, result);
+
+        verify(userRepository, never()).findByEmail(any(String.class));
+        verify(emailFilter).put("new@example.com");
+    }
+
     // --- CREATE: email conflict ---
     @Test
     void createUser_withExistingEmail_shouldThrow_EmailAlreadyExistsException() {
         // Arrange
         RequestUserDto userDto = new RequestUserDto("Test", "User", "test@example.com", "password");
-        User user = new User(1L, "test@example.com", "Test", "User", "password", null, null, true, false);
+        User user = new User(1L, "test@example.com", "Test", "User", "password", null, null, true, false, null);
         
         when(userRepository.findByEmail(userDto.email().toLowerCase())).thenReturn(Optional.of(user));
-        when(passwordEncoder.encode(userDto.password())).thenReturn(userDto.password());
+        when(passwordHasher.encode(userDto.password())).thenReturn(userDto.password());
 
         // Action / Assert
         assertThrows(
@@ -92,7 +189,7 @@ public class UserServiceTest {
             () -> userService.createUser(userDto)
         );
 
-        verify(passwordEncoder).encode(userDto.password());
+        verify(passwordHasher).encode(userDto.password());
         verify(userRepository).findByEmail(userDto.email().toLowerCase());
         verify(userRepository, times(0)).save(any(User.class));
     }
@@ -101,21 +198,14 @@ public class UserServiceTest {
     @Test
     void getAllUsers_shouldReturn_PageOfResponseUserDto() {
         // Arrange
-        RequestUserFilterDto filter = new RequestUserFilterDto("test", null, null, null, null, null, null, null, null, null, null, null);
+        RequestUserFilterDto filter = new RequestUserFilterDto("test", null, null, null, null, null, null, null, null, null, null, null, null);
         Pageable pageable = PageRequest.of(0, 2);
 
-        User user1 = new User(1L, "test1@example.com", "Test1", "User1", null, null, null, true, false);
-        User user2 = new User(2L, "test2@example.com", "Test2", "User2", null, null, null, true, false);
+        ResponseUserDto dto1 = new ResponseUserDto(1L, "test1@example.com", "Test1", "User1", null, null, true, false, null);
+        ResponseUserDto dto2 = new ResponseUserDto(2L, "test2@example.com", "Test2", "User2", null, null, true, false, null);
+        Page<ResponseUserDto> dtoPage = new PageImpl<>(List.of(dto1, dto2), pageable, 2);
 
-        List<User> users = List.of(user1, user2);
-        Page<User> userPage = new PageImpl<>(users, pageable, 2);
-
-        ResponseUserDto dto1 = new ResponseUserDto(1L, "test1@example.com", "Test1", "User1", null, null, true, false);
-        ResponseUserDto dto2 = new ResponseUserDto(2L, "test2@example.com", "Test2", "User2", null, null, true, false);
-
-        when(userRepository.findAll(filter, pageable)).thenReturn(userPage);
-        when(mapper.toResponse(user1)).thenReturn(dto1);
-        when(mapper.toResponse(user2)).thenReturn(dto2);
+        when(userRepository.findAllResponses(filter, pageable)).thenReturn(dtoPage);
 
         // Action
         Page<ResponseUserDto> result = userService.getAllUsers(filter, pageable);
@@ -125,8 +215,8 @@ public class UserServiceTest {
         assertEquals("test1@example.com", result.getContent().get(0).email());
         assertEquals("test2@example.com", result.getContent().get(1).email());
 
-        verify(userRepository).findAll(filter, pageable);
-        verify(mapper, times(2)).toResponse(any(User.class));
+        verify(userRepository).findAllResponses(filter, pageable);
+        verify(mapper, times(0)).toResponse(any(User.class));
     }
 
     // --- GET BY ID ---
@@ -134,11 +224,9 @@ public class UserServiceTest {
     void getUserById_withValidId_shouldReturn_ResponseUserDto() {
         // Arrange
         Long userId = 1L;
-        User user = new User(userId, "test@example.com", "Test", "User", "password", null, null, true, false);
-        ResponseUserDto responseUserDto = new ResponseUserDto(userId, "test@example.com", "Test", "User", null, null, true, false);
+        ResponseUserDto responseUserDto = new ResponseUserDto(userId, "test@example.com", "Test", "User", null, null, true, false, null);
         
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(mapper.toResponse(user)).thenReturn(responseUserDto);
+        when(userRepository.findResponseById(userId)).thenReturn(Optional.of(responseUserDto));
         
         // Action
         ResponseUserDto result = userService.getUserById(userId);
@@ -146,8 +234,8 @@ public class UserServiceTest {
         // Assert
         assertEquals(responseUserDto, result);
         
-        verify(userRepository).findById(userId);
-        verify(mapper).toResponse(user);
+        verify(userRepository).findResponseById(userId);
+        verify(userRepository, times(0)).findById(userId);
     }
     
     // --- GET BY ID: not found ---
@@ -156,7 +244,7 @@ public class UserServiceTest {
         // Arrange
         Long userId = 999L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findResponseById(userId)).thenReturn(Optional.empty());
         
         // Action / Assert
         assertThrows(
@@ -164,33 +252,49 @@ public class UserServiceTest {
             () -> userService.getUserById(userId)
         );
         
-        verify(userRepository).findById(userId);
+        verify(userRepository).findResponseById(userId);
         verify(mapper, times(0)).toResponse(any(User.class));
     }
 
+    // --- LOOKUP ---
+    @Test
+    void lookupUsers_shouldServeCachedIdsAndQueryOnlyTheRest() {
+        // Arrange
+        ResponseUserDto cached = new ResponseUserDto(1L, "cached@example.com", "Cached", "User", null, null, true, false, 0L);
+        ResponseUserDto loaded = new ResponseUserDto(2L, "loaded@example.com", "Loaded", "User", null, null, true, false, 0L);
+        ResponseUserDto byEmail = new ResponseUserDto(3L, "mail@example.com", "Mail", "User", null, null, true, false, 0L);
+
+        ReflectionTestUtils.setField(userService, "maxBatchSize", 100);
+        when(cacheManager.getCache("users")).thenReturn(cache);
+        when(cache.get(any(), eq(ResponseUserDto.class)))
+            .thenAnswer(invocation -> Long.valueOf(1L).equals(invocation.getArgument(0)) ? cached : null);
+        when(userRepository.findResponsesByIds(List.of(2L, 9L))).thenReturn(List.of(loaded));
+        when(userRepository.findResponsesByEmails(Set.of("mail@example.com", "none@example.com"))).thenReturn(List.of(byEmail));
+
+        // Action
+        ResponseUserLookupDto result = userService.lookupUsers(
+            new RequestUserLookupDto(List.of(2L, 1L, 9L, 2L), List.of("Mail@Example.com", "none@example.com")));
+
+        // Assert
+        assertEquals(List.of(loaded, cached, byEmail), result.users());
+        assertEquals(List.of(9L), result.missingIds());
+        assertEquals(List.of("none@example.com"), result.missingEmails());
+
+        verify(cache).put(2L, loaded);
+        verify(userRepository, never()).findResponseById(any(Long.class));
+    }
+
     // --- UPDATE ---
     @Test
     void updateUser_withValidIdAndDto_shouldReturn_ResponseUserDto() {
         // Arrange
         Long userId = 1L;
-        RequestUserDto userDto = new RequestUserDto("updated@example.com", "Updated", "User", "newpassword");
-        User existingUser = new User(userId, "old@example.com", "Old", "User", "oldpassword", null, null, true, false);
-        ResponseUserDto responseUserDto = new ResponseUserDto(userId, "updated@example.com", "Updated", "User", null, null, true, false);
+        RequestUserDto userDto = new RequestUserDto("Updated@Example.com", "Updated", "User", "newpassword");
+        RequestUserDto normUserDto = new RequestUserDto("updated@example.com", "Updated", "User", "hashed");
+        ResponseUserDto responseUserDto = new ResponseUserDto(userId, "updated@example.com", "Updated", "User", null, null, true, false, null);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.findByEmail(userDto.email().toLowerCase())).thenReturn(Optional.empty());
-        doAnswer(invocation -> {
-            RequestUserDto argDto = invocation.getArgument(0);
-            User target = invocation.getArgument(1);
-            target.setEmail(argDto.email().toLowerCase());
-            target.setFirstName(argDto.firstName());
-            target.setLastName(argDto.lastName());
-            target.setPassword(argDto.password());
-            return null;
-        }).when(mapper).updateUserFromDto(eq(userDto), any(User.class));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(mapper.toResponse(any(User.class))).thenReturn(responseUserDto);
-        when(passwordEncoder.encode(userDto.password())).thenReturn(userDto.password());
+        when(passwordHasher.encode(userDto.password())).thenReturn("hashed");
+        when(userRepository.replace(userId, normUserDto, null)).thenReturn(Optional.of(responseUserDto));
 
         // Action
         ResponseUserDto result = userService.updateUser(userId, userDto);
@@ -198,11 +302,10 @@ public class UserServiceTest {
         // Assert
         assertEquals(responseUserDto, result);
 
-        verify(passwordEncoder).encode(userDto.password());
-        verify(userRepository).findById(userId);
-        verify(mapper).updateUserFromDto(userDto, existingUser);
-        verify(userRepository).save(existingUser);
-        verify(mapper).toResponse(existingUser);
+        verify(userRepository).replace(userId, normUserDto, null);
+        verify(userRepository, never()).findById(any(Long.class));
+        verify(userRepository, never()).findByEmail(any(String.class));
+        verify(emailFilter).put("updated@example.com");
     }
     
     // --- UPDATE: not found ---
@@ -212,8 +315,8 @@ public class UserServiceTest {
         Long userId = 999L;
         RequestUserDto userDto = new RequestUserDto("updated@example.com", "Updated", "User", "newpassword");
         
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
-        when(passwordEncoder.encode(userDto.password())).thenReturn(userDto.password());
+        when(passwordHasher.encode(userDto.password())).thenReturn(userDto.password());
+        when(userRepository.replace(eq(userId), any(RequestUserDto.class), isNull())).thenReturn(Optional.empty());
         
         // Action / Assert
         assertThrows(
@@ -221,11 +324,8 @@ public class UserServiceTest {
             () -> userService.updateUser(userId, userDto)
         );
         
-        verify(passwordEncoder).encode(userDto.password());
-        verify(userRepository).findById(userId);
-        verify(userRepository, times(0)).findByEmail(any(String.class));
-        verify(mapper, times(0))
-            .updateUserFromDto(any(RequestUserDto.class), any(User.class));
+        verify(userRepository).replace(eq(userId), any(RequestUserDto.class), isNull());
+        verify(emailFilter, never()).put(any(String.class));
     }
     
     // --- UPDATE: email conflict ---
@@ -234,12 +334,10 @@ public class UserServiceTest {
         // Arrange
         Long userId = 1L;
         RequestUserDto userDto = new RequestUserDto("existing@example.com", "Updated", "User", "newpassword");
-        User existingUser = new User(userId, "old@example.com", "Old", "User", "oldpassword", null, null, true, false);
-        User anotherUser = new User(2L, "existing@example.com", "Another", "User", "password", null, null, true, false);
         
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.findByEmail(userDto.email().toLowerCase())).thenReturn(Optional.of(anotherUser));
-        when(passwordEncoder.encode(userDto.password())).thenReturn(userDto.password());
+        when(passwordHasher.encode(userDto.password())).thenReturn(userDto.password());
+        when(userRepository.replace(eq(userId), any(RequestUserDto.class), isNull()))
+            .thenThrow(new DataIntegrityViolationException("uk_users_email"));
         
         // Action / Assert
         assertThrows(
@@ -247,52 +345,96 @@ public class UserServiceTest {
             () -> userService.updateUser(userId, userDto)
         );
         
-        verify(passwordEncoder).encode(userDto.password());
-        verify(userRepository).findById(userId);
-        verify(userRepository).findByEmail(userDto.email().toLowerCase());
-        verify(mapper, times(0))
-            .updateUserFromDto(any(RequestUserDto.class), any(User.class));
+        verify(userRepository, never()).findByEmail(any(String.class));
+        verify(emailFilter, never()).put(any(String.class));
     }
 
-    
+    // --- UPDATE: other integrity violations ---
+    @Test
+    void updateUserPartial_withOtherConstraintViolation_shouldRethrowIt() {
+        // Arrange
+        Long userId = 1L;
+        RequestUserPatchDto userDto = new RequestUserPatchDto(null, "Updated", null, null);
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("NULL not allowed for column \"LAST_NAME\"");
+
+        when(userRepository.patch(eq(userId), any(RequestUserPatchDto.class), isNull())).thenThrow(violation);
+
+        // Action
+        DataIntegrityViolationException thrown = assertThrows(
+            DataIntegrityViolationException.class,
+            () -> userService.updateUserPartial(userId, userDto)
+        );
+
+        // Assert
+        assertSame(violation, thrown);
+        verify(userRepository, never()).archiveDeleted(any());
+    }
+
+    // --- UPDATE: email held by a deleted user ---
+    @Test
+    void updateUser_withEmailOfDeletedUser_shouldArchiveItAndRetry() {
+        // Arrange
+        Long userId = 1L;
+        RequestUserDto userDto = new RequestUserDto("deleted@example.com", "Updated", "User", "newpassword");
+        ResponseUserDto responseDto = new ResponseUserDto(userId, "deleted@example.com", "Updated", "User", null, null, true, false, 1L);
+
+        when(passwordHasher.encode(userDto.password())).thenReturn(userDto.password());
+        when(userRepository.replace(eq(userId), any(RequestUserDto.class), isNull()))
+            .thenThrow(new DataIntegrityViolationException("uk_users_email"))
+            .thenReturn(Optional.of(responseDto));
+        when(userRepository.archiveDeleted(Set.of("deleted@example.com"))).thenReturn(1);
+
+        // Action
+        ResponseUserDto result = userService.updateUser(userId, userDto);
+
+        // Assert
+        assertEquals(responseDto, result);
+        verify(userRepository, times(2)).replace(eq(userId), any(RequestUserDto.class), isNull());
+        verify(emailFilter).put("deleted@example.com");
+    }
+
+    // --- UPDATE: stale If-Match ---
+    @Test
+    void updateUser_withStaleVersion_shouldThrow_UserVersionMismatchException() {
+        // Arrange
+        Long userId = 1L;
+        RequestUserDto userDto = new RequestUserDto("updated@example.com", "Updated", "User", "newpassword");
+
+        when(passwordHasher.encode(userDto.password())).thenReturn(userDto.password());
+        when(userRepository.replace(eq(userId), any(RequestUserDto.class), eq(3L))).thenReturn(Optional.empty());
+        when(userRepository.findVersionById(userId)).thenReturn(Optional.of(new UserVersionDto(4L, null)));
+
+        // Action / Assert
+        assertThrows(
+            UserVersionMismatchException.class,
+            () -> userService.updateUser(userId, userDto, 3L)
+        );
+
+        verify(userRepository).findVersionById(userId);
+        verify(emailFilter, never()).put(any(String.class));
+    }
 
     // --- PARTIAL UPDATE ---
     @Test
     void updateUserPartial_withValidIdAndDto_shouldReturn_ResponseUserDto() {
         // Arrange
         Long userId = 1L;
-        RequestUserPatchDto userDto = new RequestUserPatchDto("updated@example.com", "Updated", "User", "newpassword");
-        User existingUser = new User(userId, "old@example.com", "Old", "User", "oldpassword", null, null, true, false);
-        ResponseUserDto responseUserDto = new ResponseUserDto(userId, "updated@example.com", "Updated", "User", null, null, true, false);
+        RequestUserPatchDto userDto = new RequestUserPatchDto("Updated@Example.com", null, null, "newpassword");
+        RequestUserPatchDto normUserDto = new RequestUserPatchDto("updated@example.com", null, null, "hashed");
+        ResponseUserDto responseUserDto = new ResponseUserDto(userId, "updated@example.com", "Old", "User", null, null, true, false, null);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.findByEmail(userDto.email().toLowerCase())).thenReturn(Optional.empty());
-        doAnswer(invocation -> {
-            RequestUserPatchDto argDto = invocation.getArgument(0);
-            User target = invocation.getArgument(1);
-            target.setEmail(argDto.email().toLowerCase());
-            target.setFirstName(argDto.firstName());
-            target.setLastName(argDto.lastName());
-            target.setPassword(argDto.password());
-            return null;
-        }).when(mapper).patchUserFromDto(eq(userDto), any(User.class));
-
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(mapper.toResponse(any(User.class))).thenReturn(responseUserDto);
-        when(passwordEncoder.encode(userDto.password())).thenReturn(userDto.password());
+        when(passwordHasher.encode(userDto.password())).thenReturn("hashed");
+        when(userRepository.patch(userId, normUserDto, null)).thenReturn(Optional.of(responseUserDto));
 
         // Action
         ResponseUserDto result = userService.updateUserPartial(userId, userDto);
 
         // Assert
         assertEquals(responseUserDto, result);
-        assertEquals("updated@example.com", existingUser.getEmail());
 
-        verify(passwordEncoder).encode(userDto.password());
-        verify(userRepository).findById(userId);
-        verify(mapper).patchUserFromDto(userDto, existingUser);
-        verify(userRepository).save(existingUser);
-        verify(mapper).toResponse(existingUser);
+        verify(userRepository).patch(userId, normUserDto, null);
+        verify(userRepository, never()).findById(any(Long.class));
+        verify(emailFilter).put("updated@example.com");
     }
     
     // --- PARTIAL UPDATE: not found ---
@@ -302,8 +444,8 @@ public class UserServiceTest {
         Long userId = 999L;
         RequestUserPatchDto userDto = new RequestUserPatchDto("updated@example.com", "Updated", "User", "newpassword");
         
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
-        when(passwordEncoder.encode(userDto.password())).thenReturn(userDto.password());
+        when(passwordHasher.encode(userDto.password())).thenReturn(userDto.password());
+        when(userRepository.patch(eq(userId), any(RequestUserPatchDto.class), isNull())).thenReturn(Optional.empty());
         
         // Action / Assert
         assertThrows(
@@ -311,11 +453,7 @@ public class UserServiceTest {
             () -> userService.updateUserPartial(userId, userDto)
         );
         
-        verify(passwordEncoder).encode(userDto.password());
-        verify(userRepository).findById(userId);
-        verify(userRepository, times(0)).findByEmail(any(String.class));
-        verify(mapper, times(0))
-            .patchUserFromDto(any(RequestUserPatchDto.class), any(User.class));
+        verify(userRepository).patch(eq(userId), any(RequestUserPatchDto.class), isNull());
     }
     
     // --- PARTIAL UPDATE: email conflict ---
@@ -324,12 +462,10 @@ public class UserServiceTest {
         // Arrange
         Long userId = 1L;
         RequestUserPatchDto userDto = new RequestUserPatchDto("existing@example.com", "Updated", "User", "newpassword");
-        User existingUser = new User(userId, "old@example.com", "Old", "User", "oldpassword", null, null, true, false);
-        User anotherUser = new User(2L, "existing@example.com", "Another", "User", "password", null, null, true, false);
         
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.findByEmail(userDto.email().toLowerCase())).thenReturn(Optional.of(anotherUser));
-        when(passwordEncoder.encode(userDto.password())).thenReturn(userDto.password());
+        when(passwordHasher.encode(userDto.password())).thenReturn(userDto.password());
+        when(userRepository.patch(eq(userId), any(RequestUserPatchDto.class), isNull()))
+            .thenThrow(new DataIntegrityViolationException("uk_users_email"));
         
         // Action / Assert
         assertThrows(
@@ -337,11 +473,7 @@ public class UserServiceTest {
             () -> userService.updateUserPartial(userId, userDto)
         );
         
-        verify(passwordEncoder).encode(userDto.password());
-        verify(userRepository).findById(userId);
-        verify(userRepository).findByEmail(userDto.email().toLowerCase());
-        verify(mapper, times(0))
-            .patchUserFromDto(any(RequestUserPatchDto.class), any(User.class));
+        verify(userRepository, never()).findByEmail(any(String.class));
     }
     
     // --- DELETE ---
@@ -349,16 +481,15 @@ public class UserServiceTest {
     void deleteUser_withValidId_shouldDeleteUser() {
         // Arrange
         Long userId = 1L;
-        User user = new User(userId, "test@example.com", "Test", "User", "password", null, null, true, false);
         
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.deleteById(userId)).thenReturn(true);
         
         // Action
         userService.deleteUser(userId);
         
         // Assert
-        verify(userRepository).findById(userId);
         verify(userRepository).deleteById(userId);
+        verify(userRepository, never()).findById(any(Long.class));
     }
     
     // --- DELETE: not found ---
@@ -367,7 +498,7 @@ public class UserServiceTest {
         // Arrange
         Long userId = 999L;
         
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.deleteById(userId)).thenReturn(false);
         
         // Action / Assert
         assertThrows(
@@ -375,7 +506,6 @@ public class UserServiceTest {
             () -> userService.deleteUser(userId)
         );
         
-        verify(userRepository).findById(userId);
-        verify(userRepository, times(0)).deleteById(any(Long.class));
+        verify(userRepository).deleteById(userId);
     }
 }
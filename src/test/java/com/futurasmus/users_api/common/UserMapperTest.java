@@ -25,10 +25,10 @@ public class UserMapperTest {
 
     @BeforeEach
     void setUp() {
-        user = new User(1L, "test@example.com", "Test", "User", "password", null, null, true, false);
-        userEntity = new UserEntity(1L, "test@example.com", "Test", "User", "password", null, null, true, false);
+        user = new User(1L, "test@example.com", "Test", "User", "password", null, null, true, false, null);
+        userEntity = new UserEntity(1L, "test@example.com", "Test", "User", "password", null, null, true, false, null, null);
         requestUserDto = new RequestUserDto("test@example.com", "Test", "User", "password");
-        responseUserDto = new ResponseUserDto(1L, "test@example.com", "Test", "User", null, null, true, false);
+        responseUserDto = new ResponseUserDto(1L, "test@example.com", "Test", "User", null, null, true, false, null);
         requestUserPatchDto = new RequestUserPatchDto("test@example.com", "Test", "User", "password");
     }
     
@@ -59,7 +59,7 @@ public class UserMapperTest {
     @Test
     void updateUserFromDto_withValidUserDto_shouldUpdateUser() {
         // Arrange
-        User userToUpdate = new User(1L, "testUpdate@example.com", "TestUpdate", "UserUpdate", "passwordUpdate", null, null, true, false);
+        User userToUpdate = new User(1L, "testUpdate@example.com", "TestUpdate", "UserUpdate", "passwordUpdate", null, null, true, false, null);
         // Action
         mapper.updateUserFromDto(requestUserDto, userToUpdate);
         // Assert
@@ -69,7 +69,7 @@ public class UserMapperTest {
     @Test
     void patchUserFromDto_withValidUserPatchDto_shouldUpdateUser() {
         // Arrange
-        User userToPatch = new User(1L, "testPatch@example.com", "TestPatch", "UserPatch", "passwordPatch", null, null, true, false);
+        User userToPatch = new User(1L, "testPatch@example.com", "TestPatch", "UserPatch", "passwordPatch", null, null, true, false, null);
         // Action
         mapper.patchUserFromDto(requestUserPatchDto, userToPatch);
         // Assert
@@ -80,8 +80,8 @@ public class UserMapperTest {
     void patchUserFromDto_withNullValuesUserPatchDto_shouldUpdateUser() {
         // Arrange
         RequestUserPatchDto requestUserPatchDtoNullEmail = new RequestUserPatchDto(null, "Test", "User", null);
-        User userToPatch = new User(1L, "testPatch@example.com", "TestPatch", "UserPatch", "passwordPatch", null, null, true, false);
-        User patched = new User(1L, "testPatch@example.com", "Test", "User", "passwordPatch", null, null, true, false);
+        User userToPatch = new User(1L, "testPatch@example.com", "TestPatch", "UserPatch", "passwordPatch", null, null, true, false, null);
+        User patched = new User(1L, "testPatch@example.com", "Test", "User", "passwordPatch", null, null, true, false, null);
         // Action
         mapper.patchUserFromDto(requestUserPatchDtoNullEmail, userToPatch);
         // Assert
@@ -0,0 +1,74 @@
+package com.futurasmus.users_api.common.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryConsume_withFullBucket_shouldAllowBurstThenReportWait() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(5, 1, 0);
+
+        // Action
+        int allowed = 0;
+        while (bucket.tryConsume(0) == 0) {
+            allowed++;
+        }
+
+        // Assert
+        assertEquals(5, allowed);
+        assertEquals(SECOND, bucket.tryConsume(0));
+        assertEquals(0, bucket.available(0));
+    }
+
+    @Test
+    void tryConsume_afterWaiting_shouldRefillAtConfiguredRateUpToCapacity() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(5, 2, 0);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryConsume(0);
+        }
+
+        // Action / Assert
+        assertEquals(0, bucket.tryConsume(SECOND / 2));
+        assertTrue(bucket.tryConsume(SECOND / 2) > 0);
+        assertEquals(5, bucket.available(60 * SECOND));
+    }
+
+    @Test
+    void tryConsume_fromManyThreads_shouldNeverHandOutMoreThanCapacity() throws InterruptedException {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1_000, 0.001, 0);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+
+        // Action
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    if (bucket.tryConsume(0) == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1_000, allowed.get());
+    }
+}
@@ -0,0 +1,56 @@
+package com.futurasmus.users_api.infrastructure.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sleeping inside synchronized pins the carrier up to Java 23; from Java 24 monitors no longer pin.
+@EnabledForJreRange(min = JRE.JAVA_21, max = JRE.JAVA_23)
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void shouldReportPinnedVirtualThreadsByFrame() throws Exception {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(10));
+        monitor.start();
+
+        try {
+            // Action
+            Future<?> pinned = new VirtualThreadTaskExecutor("pinned-").submit(() -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            pinned.get(5, TimeUnit.SECONDS);
+
+            // Assert
+            Timer timer = null;
+            for (long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10); timer == null && System.nanoTime() < deadline; ) {
+                Thread.sleep(100);
+                timer = meterRegistry.find("users.threads.pinned").tag("frame", frame -> frame.startsWith(getClass().getName())).timer();
+            }
+            assertNotNull(timer);
+            assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 40);
+        } finally {
+            monitor.stop();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.futurasmus.users_api.infrastructure.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RateLimiterTest {
+
+    @Test
+    void rateLimiter_withShippedDefaults_shouldAllowEachTierItsBurst() throws IOException {
+        // Arrange
+        RateLimitProperties properties = shippedProperties();
+
+        // Action
+        RateLimiter rateLimiter = new RateLimiter(properties, new SimpleMeterRegistry());
+
+        // Assert
+        assertEquals(3, properties.tiers().size());
+        // The limiter runs on the real clock, so a fast tier may refill a few tokens while the burst is drained.
+        properties.tiers().forEach((tier, limit) -> {
+            int allowed = 0;
+            while (allowed < limit.capacity() * 2 && rateLimiter.tryAcquire(tier, "client") == 0) {
+                allowed++;
+            }
+            assertTrue(allowed >= limit.capacity(), tier + " allowed " + allowed);
+            assertTrue(allowed < limit.capacity() * 2, tier + " never refused");
+        });
+    }
+
+    // The main application.properties, not the test one that shadows it on the classpath.
+    private static RateLimitProperties shippedProperties() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(Path.of("src/main/resources/application.properties"))) {
+            properties.load(reader);
+        }
+        return new Binder(new MapConfigurationPropertySource(properties))
+            .bind("users.rate-limit", RateLimitProperties.class)
+            .get();
+    }
+}
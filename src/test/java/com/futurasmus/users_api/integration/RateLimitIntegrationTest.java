@@ -0,0 +1,106 @@
+package com.futurasmus.users_api.integration;
+
+import com.futurasmus.users_api.application.dto.RequestUserLookupDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Buckets that practically never refill, so the test sees exactly the configured burst. The read tier has no
+// limits and getUserById is moved into the query tier. MockMvc requests come from 127.0.0.1, which plays the
+// trusted proxy; other callers get their address set explicitly.
+@SpringBootTest(properties = {
+    "users.clients.trusted-proxies=127.0.0.1",
+    "users.rate-limit.enabled=true",
+    "users.rate-limit.tiers.query.capacity=2",
+    "users.rate-limit.tiers.query.refill-per-second=0.001",
+    "users.rate-limit.tiers.write.capacity=1",
+    "users.rate-limit.tiers.write.refill-per-second=0.001",
+    "users.rate-limit.endpoints.getUserById=query"
+})
+@AutoConfigureMockMvc
+class RateLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldRejectClientsOverTheirTierBudgetWithRetryAfter() throws Exception {
+        // Arrange
+        double rejectedBefore = meterRegistry.counter("users.rate-limit", "tier", "query", "operation", "getAllUsers", "outcome", "rejected").count();
+        mockMvc.perform(get("/api/users").header("X-Client-Id", "greedy"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users").param("email", "x").header("X-Client-Id", "greedy"))
+            .andExpect(status().isOk());
+
+        // Action / Assert
+        mockMvc.perform(get("/api/users").header("X-Client-Id", "greedy"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "1000"))
+            .andExpect(jsonPath("$.error").value("Rate limit exceeded for query requests, retry later"));
+        mockMvc.perform(get("/api/users/1").header("X-Client-Id", "greedy"))
+            .andExpect(status().isTooManyRequests());
+        mockMvc.perform(post("/api/users/lookup")
+                .header("X-Client-Id", "greedy")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserLookupDto(List.of(1L), List.of()))))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users").header("X-Client-Id", "polite"))
+            .andExpect(status().isOk());
+        assertEquals(rejectedBefore + 1,
+            meterRegistry.counter("users.rate-limit", "tier", "query", "operation", "getAllUsers", "outcome", "rejected").count());
+    }
+
+    @Test
+    void shouldIgnoreClientHeaderFromUntrustedAddresses() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/users").with(from("203.0.113.7")).header("X-Client-Id", "first"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users").with(from("203.0.113.7")).header("X-Client-Id", "second"))
+            .andExpect(status().isOk());
+
+        // Action / Assert
+        mockMvc.perform(get("/api/users").with(from("203.0.113.7")).header("X-Client-Id", "third"))
+            .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/users").with(from("203.0.113.8")).header("X-Client-Id", "third"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldBudgetWritesSeparatelyFromQueries() throws Exception {
+        // Arrange
+        String body = "{\"email\":\"limited@example.com\",\"firstName\":\"Rate\",\"lastName\":\"Limited\",\"password\":\"password123\"}";
+        mockMvc.perform(post("/api/users").header("X-Client-Id", "writer").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isCreated());
+
+        // Action / Assert
+        mockMvc.perform(patch("/api/users/1").header("X-Client-Id", "writer").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/users").header("X-Client-Id", "writer"))
+            .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,225 @@
+package com.futurasmus.users_api.integration;
+
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.service.EmailBloomFilter;
+import com.futurasmus.users_api.application.service.UserArchiver;
+import com.futurasmus.users_api.application.service.UserChangeFeed;
+import com.futurasmus.users_api.domain.repository.UserRepository;
+import com.futurasmus.users_api.infrastructure.entity.UserEntity;
+import com.futurasmus.users_api.infrastructure.repository.UserJpaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Reactive mode against an in-memory H2 reached through r2dbc-h2. JPA creates the schema on the same database,
+// which runs in PostgreSQL mode so the adapter's SQL is the one PostgreSQL gets.
+@SpringBootTest(properties = {
+    "spring.main.web-application-type=reactive",
+    "spring.datasource.url=jdbc:h2:mem:reactivedb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "users.r2dbc.url=r2dbc:h2:mem:///reactivedb?options=MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureWebTestClient
+class ReactiveUserControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private UserJpaRepository userJpaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @BeforeEach
+    void setUp() {
+        userJpaRepository.deleteAll();
+        jdbcTemplate.update("delete from users_archive");
+    }
+
+    @Test
+    void shouldCreateReadUpdateAndDeleteUsers() {
+        // Arrange
+        RequestUserDto dto = new RequestUserDto("Reactive@Example.com", "Reactive", "User", "password123");
+
+        // Action
+        ResponseUserDto created = webTestClient.post().uri("/api/users")
+            .bodyValue(dto)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(ResponseUserDto.class)
+            .returnResult().getResponseBody();
+
+        // Assert
+        assertEquals("reactive@example.com", created.email());
+        assertEquals(0L, created.version());
+        assertTrue(userJpaRepository.findByEmail("reactive@example.com").isPresent());
+        webTestClient.post().uri("/api/users")
+            .bodyValue(dto)
+            .exchange()
+            .expectStatus().isEqualTo(409);
+        webTestClient.post().uri("/api/users")
+            .bodyValue(new RequestUserDto("not-an-email", "Reactive", "User", "password123"))
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.email").exists();
+
+        webTestClient.get().uri("/api/users/{id}", created.id())
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("ETag", "\"0\"")
+            .expectBody().jsonPath("$.firstName").isEqualTo("Reactive");
+        webTestClient.get().uri("/api/users/{id}", created.id())
+            .header("If-None-Match", "\"0\"")
+            .exchange()
+            .expectStatus().isNotModified();
+
+        webTestClient.patch().uri("/api/users/{id}", created.id())
+            .header("If-Match", "\"0\"")
+            .bodyValue(new RequestUserPatchDto(null, "Patched", null, null))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("ETag", "\"1\"")
+            .expectBody()
+            .jsonPath("$.firstName").isEqualTo("Patched")
+            .jsonPath("$.lastName").isEqualTo("User");
+        webTestClient.put().uri("/api/users/{id}", created.id())
+            .header("If-Match", "\"0\"")
+            .bodyValue(new RequestUserDto("reactive@example.com", "Stale", "Write", "password123"))
+            .exchange()
+            .expectStatus().isEqualTo(412);
+        webTestClient.put().uri("/api/users/{id}", created.id())
+            .bodyValue(new RequestUserDto("renamed@example.com", "Put", "User", "password123"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.email").isEqualTo("renamed@example.com");
+
+        webTestClient.delete().uri("/api/users/{id}", created.id())
+            .exchange()
+            .expectStatus().isNoContent();
+        webTestClient.get().uri("/api/users/{id}", created.id())
+            .exchange()
+            .expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/users/{id}", created.id())
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldFilterAndPageLikeTheServletMode() {
+        // Arrange
+        userJpaRepository.saveAll(List.of(
+            new UserEntity(null, "ana@example.com", "Ana", "Lopez", "password", null, null, true, true, null, null),
+            new UserEntity(null, "bob@example.com", "Bob", "Lopez", "password", null, null, true, false, null, null),
+            new UserEntity(null, "carla@test.com", "Carla", "Diaz", "password", null, null, false, false, null, null)));
+
+        // Action / Assert
+        webTestClient.get().uri("/api/users?lastName=LOP&active=true&sort=firstName,desc&size=1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists("ETag")
+            .expectBody()
+            .jsonPath("$.totalElements").isEqualTo(2)
+            .jsonPath("$.totalPages").isEqualTo(2)
+            .jsonPath("$.content.length()").isEqualTo(1)
+            .jsonPath("$.content[0].firstName").isEqualTo("Bob");
+        webTestClient.get().uri("/api/users?notEmail=example&page=0")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.totalElements").isEqualTo(1)
+            .jsonPath("$.content[0].email").isEqualTo("carla@test.com")
+            .jsonPath("$.content[0].password").doesNotExist();
+        webTestClient.get().uri("/api/users?verified=true")
+            .exchange()
+            .expectBody()
+            .jsonPath("$.content[*].email").value(contains("ana@example.com"));
+    }
+
+    @Test
+    void shouldRunNoJpaAdapterOrChangeFeedAndRebuildTheEmailFilterThroughR2dbc() {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "rebuilt@example.com", "Jpa", "User", "password", null, null, true, false, null, null));
+
+        // Action
+        emailFilter.rebuild();
+
+        // Assert
+        assertNull(context.getBeanProvider(UserChangeFeed.class).getIfAvailable());
+        assertNull(context.getBeanProvider(UserArchiver.class).getIfAvailable());
+        assertNull(context.getBeanProvider(UserRepository.class).getIfAvailable());
+        assertTrue(emailFilter.mightContain("rebuilt@example.com"));
+    }
+
+    @Test
+    void shouldShareTheIdSequenceWithJpaInBlocks() {
+        // Arrange
+        UserEntity before = userJpaRepository.save(
+            new UserEntity(null, "jpa-before@example.com", "Jpa", "User", "password", null, null, true, false, null, null));
+
+        // Action
+        ResponseUserDto first = create("first@example.com");
+        ResponseUserDto second = create("second@example.com");
+        UserEntity after = userJpaRepository.save(
+            new UserEntity(null, "jpa-after@example.com", "Jpa", "User", "password", null, null, true, false, null, null));
+
+        // Assert
+        assertEquals(first.id() + 1, second.id());
+        assertEquals(4, Set.of(before.getId(), first.id(), second.id(), after.getId()).size());
+    }
+
+    @Test
+    void shouldKeepArchivedEmailsTakenAndFreeDeletedOnes() {
+        // Arrange
+        ResponseUserDto user = create("owner@example.com");
+        ResponseUserDto deleted = create("freed@example.com");
+        webTestClient.delete().uri("/api/users/{id}", deleted.id()).exchange().expectStatus().isNoContent();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("insert into users_archive (id, email, first_name, last_name, password, created_at, updated_at,"
+            + " active, verified, version, archived_at) values (990001, 'archived@example.com', 'Old', 'User', 'password',"
+            + " ?, ?, false, false, 0, ?)", now, now, now);
+        emailFilter.put("archived@example.com");
+
+        // Action / Assert
+        webTestClient.put().uri("/api/users/{id}", user.id())
+            .bodyValue(new RequestUserDto("archived@example.com", "Owner", "User", "password123"))
+            .exchange()
+            .expectStatus().isEqualTo(409);
+        webTestClient.patch().uri("/api/users/{id}", user.id())
+            .bodyValue(new RequestUserPatchDto("freed@example.com", null, null, null))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.email").isEqualTo("freed@example.com");
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from users_archive where id = ?", Integer.class, deleted.id()));
+    }
+
+    private ResponseUserDto create(String email) {
+        return webTestClient.post().uri("/api/users")
+            .bodyValue(new RequestUserDto(email, "Reactive", "User", "password123"))
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(ResponseUserDto.class)
+            .returnResult().getResponseBody();
+    }
+}
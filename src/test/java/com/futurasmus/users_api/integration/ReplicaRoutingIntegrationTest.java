@@ -0,0 +1,95 @@
+package com.futurasmus.users_api.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Two H2 pools stand in for the replicas: the first points at a port nobody listens on, the second at the
+// primary's database, so it sees every committed write like an up-to-date replica would.
+@SpringBootTest(properties = {
+    "users.clients.trusted-proxies=127.0.0.1",
+    "spring.datasource.url=jdbc:h2:mem:routingdb;DB_CLOSE_DELAY=-1",
+    "users.datasource.replicas.enabled=true",
+    "users.datasource.replicas.urls=jdbc:h2:tcp://localhost:1/unreachable,jdbc:h2:mem:routingdb;DB_CLOSE_DELAY=-1",
+    "users.datasource.replicas.connection-timeout=250ms",
+    "users.datasource.replicas.downtime=1h",
+    "users.datasource.replicas.read-your-writes-window=1h"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldRouteReadsToLiveReplicaUnlessClientJustWrote() throws Exception {
+        // Arrange
+        double replicaBefore = reads("replica-1", "load-balanced");
+        double pinnedBefore = reads("primary", "read-your-writes");
+        mockMvc.perform(post("/api/users")
+                .header("X-Client-Id", "writer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserDto("routing@example.com", "Routing", "User", "password123"))))
+            .andExpect(status().isCreated());
+
+        // Action
+        mockMvc.perform(get("/api/users").param("email", "routing").header("X-Client-Id", "writer"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].email").value("routing@example.com"));
+        mockMvc.perform(get("/api/users").param("email", "routing").header("X-Client-Id", "reader"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].email").value("routing@example.com"));
+        mockMvc.perform(get("/api/users").header("X-Client-Id", "reader"))
+            .andExpect(status().isOk());
+
+        // Assert
+        assertEquals(pinnedBefore + 1, reads("primary", "read-your-writes"));
+        assertTrue(reads("replica-1", "load-balanced") >= replicaBefore + 2);
+        assertEquals(0, reads("replica-0", "load-balanced"));
+    }
+
+    @Test
+    void shouldKeepStreamedExportsOfRecentWritersOnThePrimary() throws Exception {
+        // Arrange
+        mockMvc.perform(post("/api/users")
+                .header("X-Client-Id", "exporter")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserDto("exported@example.com", "Exported", "User", "password123"))))
+            .andExpect(status().isCreated());
+        double pinnedBefore = reads("primary", "read-your-writes");
+
+        // Action
+        MvcResult result = mockMvc.perform(get("/api/users/export").param("format", "csv").header("X-Client-Id", "exporter"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("exported@example.com")));
+
+        // Assert
+        assertEquals(pinnedBefore + 1, reads("primary", "read-your-writes"));
+    }
+
+    private double reads(String target, String reason) {
+        return meterRegistry.get("users.datasource.reads").tag("target", target).tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,188 @@
+package com.futurasmus.users_api.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.service.UserArchiver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Own database and no test transaction: every archiver chunk commits on its own. A chunk size of 1 makes a run
+// take several chunks.
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:archivedb;DB_CLOSE_DELAY=-1",
+    "users.archive.chunk-size=1",
+    "users.archive.deleted-after=1h",
+    "users.archive.inactive-after=30d"
+})
+@AutoConfigureMockMvc
+class UserArchiveIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users_archive");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    void shouldSoftDeleteAndReleaseTheEmail() throws Exception {
+        // Arrange
+        ResponseUserDto created = create("gone@example.com");
+
+        // Action
+        mockMvc.perform(delete("/api/users/{id}", created.id()))
+            .andExpect(status().isNoContent());
+
+        // Assert
+        assertEquals(1, count("select count(*) from users where id = ? and deleted_at is not null", created.id()));
+        mockMvc.perform(get("/api/users/{id}", created.id()))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users").param("email", "gone"))
+            .andExpect(jsonPath("$.totalElements").value(0));
+        mockMvc.perform(delete("/api/users/{id}", created.id()))
+            .andExpect(status().isNotFound());
+
+        ResponseUserDto recreated = create("gone@example.com");
+        assertEquals(0, count("select count(*) from users where id = ?", created.id()));
+        assertEquals(1, count("select count(*) from users_archive where id = ? and deleted_at is not null", created.id()));
+        mockMvc.perform(get("/api/users/{id}", recreated.id()))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldArchiveInChunksAndReadArchivedUsersOnRequest() throws Exception {
+        // Arrange
+        ResponseUserDto hot = create("hot@example.com");
+        ResponseUserDto dormant = create("dormant@example.com");
+        ResponseUserDto recentlyDeleted = create("recent@example.com");
+        ResponseUserDto longDeleted = create("old@example.com");
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(60);
+        jdbcTemplate.update("update users set active = false, updated_at = ? where id = ?", longAgo, dormant.id());
+        mockMvc.perform(delete("/api/users/{id}", recentlyDeleted.id()));
+        mockMvc.perform(delete("/api/users/{id}", longDeleted.id()));
+        jdbcTemplate.update("update users set deleted_at = ? where id = ?", longAgo, longDeleted.id());
+
+        // Action
+        int moved = archiver.archive();
+
+        // Assert
+        assertEquals(2, moved);
+        assertEquals(2, count("select count(*) from users where id in (?, ?)", hot.id(), recentlyDeleted.id()));
+        assertEquals(2, count("select count(*) from users_archive where id in (?, ?)", dormant.id(), longDeleted.id()));
+        assertEquals(0, archiver.archive());
+        assertEquals(1, count("select count(*) from user_changes where type = 'ARCHIVED' and user_id = ?", dormant.id()));
+        assertEquals(0, count("select count(*) from user_changes where type = 'ARCHIVED' and user_id = ?", longDeleted.id()));
+
+        mockMvc.perform(get("/api/users").param("sort", "id"))
+            .andExpect(jsonPath("$.content[*].email").value(contains("hot@example.com")));
+        mockMvc.perform(get("/api/users").param("includeArchived", "true").param("sort", "id"))
+            .andExpect(jsonPath("$.totalElements").value(2))
+            .andExpect(jsonPath("$.content[*].email").value(contains("hot@example.com", "dormant@example.com")));
+        mockMvc.perform(get("/api/users").param("includeArchived", "true").param("active", "false").param("count", "none"))
+            .andExpect(jsonPath("$.content[*].email").value(contains("dormant@example.com")));
+        mockMvc.perform(get("/api/users").param("includeArchived", "true").param("cursor", "").param("size", "1"))
+            .andExpect(jsonPath("$.content[*].email").value(contains("hot@example.com")))
+            .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+        mockMvc.perform(get("/api/users/{id}", dormant.id()))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/{id}", dormant.id()).param("includeArchived", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.email").value("dormant@example.com"));
+        mockMvc.perform(get("/api/users/{id}", dormant.id()).param("fields", "email"))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/{id}", dormant.id()).param("fields", "email").param("includeArchived", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(1)))
+            .andExpect(jsonPath("$.email").value("dormant@example.com"));
+        mockMvc.perform(get("/api/users/{id}", longDeleted.id()).param("includeArchived", "true"))
+            .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserDto("dormant@example.com", "New", "User", "password123"))))
+            .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/users/{id}", hot.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserDto("dormant@example.com", "Hot", "User", "password123"))))
+            .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/users/{id}", hot.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"dormant@example.com\"}"))
+            .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/users/{id}", hot.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserDto("hot@example.com", "Still", "Hot", "password123"))))
+            .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/users/{id}", dormant.id()))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/users/{id}", dormant.id()).param("includeArchived", "true"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldRestoreArchivedUserOnUpdate() throws Exception {
+        // Arrange
+        ResponseUserDto dormant = create("asleep@example.com");
+        jdbcTemplate.update("update users set active = false, updated_at = ? where id = ?", LocalDateTime.now().minusDays(60), dormant.id());
+        assertEquals(1, archiver.archive());
+
+        // Action / Assert
+        assertEquals("asleep@example.com", jdbcTemplate.queryForObject(
+            "select email from user_changes where type = 'ARCHIVED' and user_id = ?", String.class, dormant.id()));
+        mockMvc.perform(patch("/api/users/{id}", dormant.id())
+                .header("If-Match", "\"7\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Stale\"}"))
+            .andExpect(status().isPreconditionFailed());
+        assertEquals(1, count("select count(*) from users_archive where id = ?", dormant.id()));
+
+        mockMvc.perform(patch("/api/users/{id}", dormant.id())
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Awake\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(1));
+        assertEquals(0, count("select count(*) from users_archive where id = ?", dormant.id()));
+        mockMvc.perform(get("/api/users/{id}", dormant.id()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.firstName").value("Awake"));
+    }
+
+    private ResponseUserDto create(String email) throws Exception {
+        String body = mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserDto(email, "Archive", "User", "password123"))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, ResponseUserDto.class);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}
@@ -0,0 +1,287 @@
+package com.futurasmus.users_api.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
+import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponseUserChangeDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.service.UserChangePruner;
+import com.futurasmus.users_api.application.service.UserService;
+import com.futurasmus.users_api.domain.repository.UserChangeRepository;
+import com.futurasmus.users_api.infrastructure.repository.search.UserSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Own database, and no test transaction: the feed reads what the writes committed, from its ticker thread.
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:changesdb;DB_CLOSE_DELAY=-1",
+    "users.changes.poll-interval=100ms"
+})
+@AutoConfigureMockMvc
+class UserChangeFeedIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserChangeRepository changeRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private UserChangePruner pruner;
+
+    @Test
+    void shouldReturnCommittedWritesInOrderAndResumeFromCursor() throws Exception {
+        // Arrange
+        long start = lastSequence();
+        ResponseUserDto created = create("feed@example.com");
+        mockMvc.perform(patch("/api/users/{id}", created.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserPatchDto(null, "Renamed", null, null))))
+            .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/users/{id}", created.id()))
+            .andExpect(status().isNoContent());
+
+        // Action
+        JsonNode firstBatch = poll(start, 2, 0);
+        JsonNode secondBatch = poll(firstBatch.get("next").asLong(), 2, 0);
+
+        // Assert
+        assertEquals(2, firstBatch.get("changes").size());
+        assertEquals("CREATED", firstBatch.at("/changes/0/type").asText());
+        assertEquals("feed@example.com", firstBatch.at("/changes/0/user/email").asText());
+        assertEquals("UPDATED", firstBatch.at("/changes/1/type").asText());
+        assertEquals("Renamed", firstBatch.at("/changes/1/user/firstName").asText());
+        assertEquals(1, firstBatch.at("/changes/1/version").asLong());
+        assertEquals(1, secondBatch.get("changes").size());
+        assertEquals("DELETED", secondBatch.at("/changes/0/type").asText());
+        assertEquals(created.id(), secondBatch.at("/changes/0/userId").asLong());
+        assertTrue(secondBatch.at("/changes/0/user").isNull());
+        assertEquals(changeRepository.lastSequence(), secondBatch.get("next").asLong());
+    }
+
+    @Test
+    void shouldDeliverSlowTransactionCommittedAfterLaterChangeWasRead() throws Exception {
+        // Arrange
+        long start = lastSequence();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            userService.createUser(new RequestUserDto("slow@example.com", "Slow", "User", "password123"));
+            written.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+        create("fast@example.com");
+        JsonNode beforeCommit = poll(start, 100, 0);
+
+        // Action
+        release.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        JsonNode afterCommit = poll(beforeCommit.get("next").asLong(), 100, 0);
+
+        // Assert
+        assertEquals(1, beforeCommit.get("changes").size());
+        assertEquals("fast@example.com", beforeCommit.at("/changes/0/user/email").asText());
+        assertEquals(1, afterCommit.get("changes").size());
+        assertEquals("slow@example.com", afterCommit.at("/changes/0/user/email").asText());
+        assertTrue(afterCommit.at("/changes/0/sequence").asLong() > beforeCommit.get("next").asLong());
+    }
+
+    @Test
+    void shouldIndexOtherInstancesWritesForSearch() throws Exception {
+        // Arrange: the row and its change are written past this instance's JPA listeners, like another node would.
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("insert into users (id, email, first_name, last_name, password, created_at, updated_at, active, verified, version) "
+            + "values (900001, 'elsewhere@example.com', 'Remote', 'User', 'hash', ?, ?, true, false, 0)", now, now);
+        jdbcTemplate.update("insert into user_changes (id, type, user_id, version, changed_at, email, first_name, last_name, created_at, updated_at, active, verified) "
+            + "values (900001, 'CREATED', 900001, 0, ?, 'elsewhere@example.com', 'Remote', 'User', ?, ?, true, false)", now, now, now);
+
+        // Action
+        String body = "";
+        for (int i = 0; i < 50 && !body.contains("elsewhere@example.com"); i++) {
+            Thread.sleep(100);
+            body = mockMvc.perform(get("/api/users").param("email", "elsewhere"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        }
+
+        // Assert
+        assertEquals(1, objectMapper.readTree(body).get("totalElements").asInt());
+    }
+
+    @Test
+    void shouldHoldLongPollUntilNextWrite() throws Exception {
+        // Arrange
+        long start = lastSequence();
+        MvcResult pending = mockMvc.perform(get("/api/users/changes").param("after", String.valueOf(start)).param("wait", "10"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Action
+        create("waiting@example.com");
+
+        // Assert
+        assertEquals(TimeUnit.SECONDS.toMillis(15), pending.getRequest().getAsyncContext().getTimeout());
+        pending.getAsyncResult(TimeUnit.SECONDS.toMillis(5));
+        mockMvc.perform(asyncDispatch(pending))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes[0].type").value("CREATED"))
+            .andExpect(jsonPath("$.changes[0].user.email").value("waiting@example.com"));
+        JsonNode caughtUp = poll(changeRepository.lastSequence(), 100, 0);
+        assertEquals(0, caughtUp.get("changes").size());
+        assertEquals(changeRepository.lastSequence(), caughtUp.get("next").asLong());
+    }
+
+    @Test
+    void shouldStreamBacklogAsServerSentEvents() throws Exception {
+        // Arrange
+        long start = lastSequence();
+        create("streamed@example.com");
+
+        // Action
+        MvcResult stream = mockMvc.perform(get("/api/users/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", String.valueOf(start)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Assert
+        String body = "";
+        for (int i = 0; i < 50 && !body.contains("streamed@example.com"); i++) {
+            Thread.sleep(100);
+            body = stream.getResponse().getContentAsString();
+        }
+        assertEquals(TimeUnit.MINUTES.toMillis(30), stream.getRequest().getAsyncContext().getTimeout());
+        assertTrue(body.contains("event:changes"), body);
+        assertTrue(body.contains("id:" + changeRepository.lastSequence()), body);
+        assertTrue(body.contains("streamed@example.com"), body);
+    }
+
+    @Test
+    void shouldIndexSearchTermsOnlyOnceCommitted() {
+        // Arrange
+        RequestUserFilterDto filter = new RequestUserFilterDto("uncommitted", null, null, null, null, null,
+            null, null, null, null, null, null, null);
+
+        // Action
+        Optional<Set<Long>> inside = transactionTemplate.execute(status -> {
+            userService.createUser(new RequestUserDto("uncommitted@example.com", "Feed", "User", "password123"));
+            status.setRollbackOnly();
+            return searchIndex.candidates(filter);
+        });
+
+        // Assert
+        // The writing transaction still finds its own row, and the rollback leaves no postings behind.
+        assertEquals(1, inside.orElseThrow().size());
+        assertEquals(Optional.of(Set.of()), searchIndex.candidates(filter));
+    }
+
+    @Test
+    void shouldNumberEachUsersChangesInVersionOrder() {
+        // Arrange: the second update read the clock first, then waited for the first one's row lock.
+        long start = lastSequence();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("insert into user_changes (id, type, user_id, version, changed_at) values (900002, 'UPDATED', 900002, 2, ?)", now.minusSeconds(1));
+        jdbcTemplate.update("insert into user_changes (id, type, user_id, version, changed_at) values (900003, 'UPDATED', 900002, 1, ?)", now);
+        jdbcTemplate.update("insert into user_changes (id, type, user_id, version, changed_at) values (900004, 'DELETED', 900002, null, ?)", now.minusSeconds(2));
+
+        // Action
+        changeRepository.assignSequences(1);
+
+        // Assert
+        List<Long> versions = changeRepository.findAfter(start, 10).stream().map(ResponseUserChangeDto::version).toList();
+        assertEquals(Arrays.asList(1L, 2L, null), versions);
+    }
+
+    @Test
+    void shouldAnswerGoneOnceChangesAfterCursorArePruned() throws Exception {
+        // Arrange
+        long start = lastSequence();
+        create("pruned@example.com");
+        create("retained@example.com");
+        long last = lastSequence();
+        jdbcTemplate.update("update user_changes set changed_at = ? where feed_sequence <= ?", LocalDateTime.now().minusDays(30), last);
+
+        // Action
+        pruner.prune();
+
+        // Assert: the newest change is kept, so a consumer that already had the one before it carries on.
+        mockMvc.perform(get("/api/users/changes").param("after", String.valueOf(start)).param("wait", "0"))
+            .andExpect(status().isGone());
+        mockMvc.perform(get("/api/users/changes").accept(MediaType.TEXT_EVENT_STREAM).header("Last-Event-ID", String.valueOf(start)))
+            .andExpect(status().isGone());
+        JsonNode tail = poll(last - 1, 100, 0);
+        assertEquals(1, tail.get("changes").size());
+        assertEquals("retained@example.com", tail.at("/changes/0/user/email").asText());
+    }
+
+    // Numbers whatever earlier tests left pending, so it is not counted as this test's.
+    private long lastSequence() {
+        changeRepository.assignSequences(Integer.MAX_VALUE);
+        return changeRepository.lastSequence();
+    }
+
+    private ResponseUserDto create(String email) throws Exception {
+        String body = mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserDto(email, "Feed", "User", "password123"))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, ResponseUserDto.class);
+    }
+
+    private JsonNode poll(long after, int limit, int wait) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/changes")
+                .param("after", String.valueOf(after))
+                .param("limit", String.valueOf(limit))
+                .param("wait", String.valueOf(wait)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -1,22 +1,45 @@
 package com.futurasmus.users_api.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
 import com.futurasmus.users_api.application.dto.RequestUserDto;
+import com.futurasmus.users_api.application.dto.RequestUserLookupDto;
 import com.futurasmus.users_api.application.dto.RequestUserPatchDto;
+import com.futurasmus.users_api.application.dto.ResponsePage;
+import com.futurasmus.users_api.application.dto.ResponseUserChangesDto;
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.dto.ResponseUserLookupDto;
+import com.futurasmus.users_api.application.dto.ResponseWindow;
+import com.futurasmus.users_api.common.http.ProtobufJacksonHttpMessageConverter;
 import com.futurasmus.users_api.infrastructure.entity.UserEntity;
 import com.futurasmus.users_api.infrastructure.repository.UserJpaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +58,12 @@ class UserControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
     @BeforeEach
     void setUp() {
         userJpaRepository.deleteAll();
@@ -61,7 +90,7 @@ class UserControllerIntegrationTest {
     @Test
     void shouldReturnConflictWhenEmailAlreadyExists() throws Exception {
         // Arrange
-        userJpaRepository.save(new UserEntity(null, "dup@example.com", "Test1", "User1", "password1", null, null, true, false));
+        userJpaRepository.save(new UserEntity(null, "dup@example.com", "Test1", "User1", "password1", null, null, true, false, null, null));
         RequestUserDto dto = new RequestUserDto("dup@example.com", "Test2", "User2", "password2");
 
         // Action / Assert
@@ -83,12 +112,116 @@ class UserControllerIntegrationTest {
             .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void shouldCreateUsersInBatchReportingEachItemInOrder() throws Exception {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "taken@example.com", "Test", "User", "password", null, null, true, false, null, null));
+        List<RequestUserDto> batch = List.of(
+            new RequestUserDto("first@example.com", "First", "User", "password123"),
+            new RequestUserDto("invalid@example.com", "Invalid", "User", "short"),
+            new RequestUserDto("TAKEN@example.com", "Taken", "User", "password123"),
+            new RequestUserDto("First@example.com", "Repeated", "User", "password123"),
+            new RequestUserDto("second@example.com", "Second", "User", "password123"));
+
+        // Action / Assert
+        mockMvc.perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(5)))
+            .andExpect(jsonPath("$[0].status", is("CREATED")))
+            .andExpect(jsonPath("$[0].user.email", is("first@example.com")))
+            .andExpect(jsonPath("$[1].status", is("INVALID")))
+            .andExpect(jsonPath("$[1].errors.password", notNullValue()))
+            .andExpect(jsonPath("$[2].status", is("CONFLICT")))
+            .andExpect(jsonPath("$[3].status", is("CONFLICT")))
+            .andExpect(jsonPath("$[4].status", is("CREATED")))
+            .andExpect(jsonPath("$[4].index", is(4)));
+
+        assertTrue(userJpaRepository.findByEmail("second@example.com").isPresent());
+    }
+
+    @Test
+    void shouldReportNullBatchItemsAsInvalid() throws Exception {
+        // Arrange
+        String batch = "[null, {\"email\":\"afternull@example.com\",\"firstName\":\"After\",\"lastName\":\"Null\",\"password\":\"password123\"}]";
+
+        // Action / Assert
+        mockMvc.perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batch))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$[0].status", is("INVALID")))
+            .andExpect(jsonPath("$[0].errors.user", is("must not be null")))
+            .andExpect(jsonPath("$[1].status", is("CREATED")))
+            .andExpect(jsonPath("$[1].index", is(1)));
+
+        assertTrue(userJpaRepository.findByEmail("afternull@example.com").isPresent());
+    }
+
+    @Test
+    void shouldImportNdjsonInChunksReportingRejectedRows() throws Exception {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "taken@example.com", "Test", "User", "password", null, null, true, false, null, null));
+        String body = String.join("\n",
+            "{\"email\":\"imp1@example.com\",\"firstName\":\"Imp\",\"lastName\":\"One\",\"password\":\"password123\"}",
+            "{not json",
+            "{\"email\":\"imp2@example.com\",\"firstName\":\"Imp\",\"lastName\":\"Two\",\"password\":\"short\"}",
+            "{\"email\":\"TAKEN@example.com\",\"firstName\":\"Imp\",\"lastName\":\"Three\",\"password\":\"password123\"}",
+            "{\"email\":\"imp3@example.com\",\"firstName\":\"Imp\",\"lastName\":\"Four\",\"password\":\"password123\"}");
+
+        // Action / Assert
+        mockMvc.perform(post("/api/users/import?format=ndjson")
+                .contentType("application/x-ndjson")
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.completed", is(true)))
+            .andExpect(jsonPath("$.rows", is(5)))
+            .andExpect(jsonPath("$.created", is(2)))
+            .andExpect(jsonPath("$.rejected", is(3)))
+            .andExpect(jsonPath("$.resumeOffset", is(5)))
+            .andExpect(jsonPath("$.rejections[*].row", contains(1, 2, 3)))
+            .andExpect(jsonPath("$.rejections[2].status", is("CONFLICT")));
+
+        assertTrue(userJpaRepository.findByEmail("imp3@example.com").isPresent());
+    }
+
+    @Test
+    void shouldResumeCsvImportFromOffset() throws Exception {
+        // Arrange
+        String body = "email,firstName,lastName,password\n"
+            + "skipped@example.com,Skip,Ped,password123\n"
+            + "\"resumed@example.com\",\"Res, Umed\",User,password123\n";
+
+        // Action / Assert
+        mockMvc.perform(post("/api/users/import?format=csv&offset=1")
+                .contentType("text/csv")
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rows", is(1)))
+            .andExpect(jsonPath("$.created", is(1)))
+            .andExpect(jsonPath("$.resumeOffset", is(2)));
+
+        assertTrue(userJpaRepository.findByEmail("skipped@example.com").isEmpty());
+        assertTrue(userJpaRepository.findByEmail("resumed@example.com").map(u -> u.getFirstName().equals("Res, Umed")).orElse(false));
+    }
+
+    @Test
+    void shouldRejectCsvImportWithoutRequiredHeader() throws Exception {
+        // Action / Assert
+        mockMvc.perform(post("/api/users/import?format=csv")
+                .contentType("text/csv")
+                .content("mail,firstName\nx@example.com,X\n"))
+            .andExpect(status().isBadRequest());
+    }
+
     // READ
     @Test
     void shouldReturnListOfUsers() throws Exception {
         // Arrange
-        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false));
-        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, true, false));
+        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, true, false, null, null));
 
         // Action / Assert
         mockMvc.perform(get("/api/users"))
@@ -100,20 +233,91 @@ class UserControllerIntegrationTest {
     @Test
     void shouldReturnEmptyListOfFilteredUsers() throws Exception {
         // Arrange
-        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false));
-        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, true, false));
+        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, true, false, null, null));
 
         // Action / Assert
         mockMvc.perform(get("/api/users?createdBefore=2025-11-10T18:10:00"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.content", hasSize(0)));
     }
-    
+
+    @Test
+    void shouldReturnUsersMatchingSubstringFilters() throws Exception {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "alice.smith@example.com", "Alice", "Smith", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "bob.smithers@example.com", "Bob", "Smithers", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "carol@example.com", "Carol", "Jones", "password", null, null, true, false, null, null));
+
+        // Action / Assert
+        mockMvc.perform(get("/api/users?email=SMITH&lastName=mith"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(2)));
+        mockMvc.perform(get("/api/users?email=smith&firstName=ali"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].email", is("alice.smith@example.com")));
+        mockMvc.perform(get("/api/users?lastName=xyz"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
+    @Test
+    void shouldMatchSubstringFiltersAgainstUpdatedValues() throws Exception {
+        // Arrange
+        UserEntity saved = userJpaRepository.save(new UserEntity(null, "dave@example.com", "Dave", "Brown", "password", null, null, true, false, null, null));
+        RequestUserPatchDto patch = new RequestUserPatchDto(null, "Davina", null, null);
+
+        // Action
+        mockMvc.perform(patch("/api/users/" + saved.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)))
+            .andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(get("/api/users?firstName=avin"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)));
+        mockMvc.perform(get("/api/users?firstName=dave"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
+    @Test
+    void shouldStreamCsvExportAsAttachment() throws Exception {
+        // Action
+        MvcResult result = mockMvc.perform(get("/api/users/export?format=csv&active=true"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", startsWith("text/csv")))
+            .andExpect(header().string("Content-Disposition", containsString("users.csv")))
+            .andExpect(content().string(startsWith("id,email,firstName,lastName")));
+        assertEquals(TimeUnit.HOURS.toMillis(1), result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void shouldCountStatementsOfStreamedExports() throws Exception {
+        // Action
+        MvcResult result = mockMvc.perform(get("/api/users/export?format=csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+
+        // Assert
+        assertTrue(meterRegistry.find("users.db.statements").tags("uri", "/api/users/export", "status", "200")
+            .summary().max() >= 1);
+    }
+
     @Test
     void shouldReturnPageOfOneUser() throws Exception {
         // Arrange
-        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false));
-        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, true, false));
+        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, true, false, null, null));
 
         // Action / Assert
         mockMvc.perform(get("/api/users?page=0&size=1"))
@@ -121,11 +325,112 @@ class UserControllerIntegrationTest {
             .andExpect(jsonPath("$.content", hasSize(1)));
     }
 
+    @Test
+    void shouldReturnSliceWithoutTotalsWhenCountIsNone() throws Exception {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, true, false, null, null));
+
+        // Action / Assert
+        mockMvc.perform(get("/api/users?page=0&size=1&count=none"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.last", is(false)))
+            .andExpect(jsonPath("$.totalElements").doesNotExist());
+        mockMvc.perform(get("/api/users?page=1&size=1&count=none"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.last", is(true)));
+    }
+
+    @Test
+    void shouldReturnTotalsFromWindowedCount() throws Exception {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "c@example.com", "Test3", "User3", "password", null, null, false, false, null, null));
+
+        // Action / Assert
+        mockMvc.perform(get("/api/users?page=0&size=1&active=true&count=window"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].email", is("a@example.com")))
+            .andExpect(jsonPath("$.totalElements", is(2)))
+            .andExpect(jsonPath("$.totalPages", is(2)))
+            .andExpect(jsonPath("$.last", is(false)));
+        mockMvc.perform(get("/api/users?page=5&size=1&active=true&count=window"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(0)))
+            .andExpect(jsonPath("$.totalElements", is(2)));
+    }
+
+    @Test
+    void shouldWalkUsersWithCursor() throws Exception {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "c@example.com", "Test3", "User3", "password", null, null, true, false, null, null));
+
+        // Action
+        String firstPage = mockMvc.perform(get("/api/users?cursor=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(2)))
+            .andExpect(jsonPath("$.content[0].email", is("a@example.com")))
+            .andExpect(jsonPath("$.last", is(false)))
+            .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        // Assert
+        mockMvc.perform(get("/api/users?size=2&cursor=" + nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].email", is("c@example.com")))
+            .andExpect(jsonPath("$.last", is(true)))
+            .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void shouldApplyFiltersAndDescendingSortWithCursor() throws Exception {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "a@example.com", "Test1", "User1", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "b@example.com", "Test2", "User2", "password", null, null, false, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "c@example.com", "Test3", "User3", "password", null, null, true, false, null, null));
+
+        // Action
+        String firstPage = mockMvc.perform(get("/api/users?cursor=&size=1&active=true&sort=createdAt,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].email", is("c@example.com")))
+            .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        // Assert
+        mockMvc.perform(get("/api/users?cursor=&active=true&sort=createdAt,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(2)))
+            .andExpect(jsonPath("$.content[0].email", is("c@example.com")))
+            .andExpect(jsonPath("$.content[1].email", is("a@example.com")));
+        mockMvc.perform(get("/api/users?size=1&active=true&sort=createdAt,desc&cursor=" + nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].email", is("a@example.com")))
+            .andExpect(jsonPath("$.last", is(true)));
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenCursorIsMalformed() throws Exception {
+        // Action / Assert
+        mockMvc.perform(get("/api/users?cursor=not-a-cursor"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users?cursor=&sort=email"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnUserById() throws Exception {
         // Arrange
         UserEntity user = userJpaRepository.save(
-            new UserEntity(null, "test@example.com", "Test", "User", "password", null, null, true, false)
+            new UserEntity(null, "test@example.com", "Test", "User", "password", null, null, true, false, null, null)
         );
 
         // Action / Assert
@@ -134,6 +439,256 @@ class UserControllerIntegrationTest {
             .andExpect(jsonPath("$.email", is("test@example.com")));
     }
 
+    @Test
+    void shouldReturnNotModifiedWhenUserEtagMatches() throws Exception {
+        // Arrange
+        UserEntity user = userJpaRepository.save(new UserEntity(null, "etag@example.com", "Etag", "User", "password", null, null, true, false, null, null));
+        mockMvc.perform(patch("/api/users/" + user.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserPatchDto(null, "Tagged", null, null))))
+            .andExpect(status().isOk());
+        MvcResult first = mockMvc.perform(get("/api/users/" + user.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andExpect(header().exists("Last-Modified"))
+            .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        String lastModified = first.getResponse().getHeader("Last-Modified");
+
+        // Action / Assert
+        mockMvc.perform(get("/api/users/" + user.getId()).header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        mockMvc.perform(get("/api/users/" + user.getId()).header("If-Modified-Since", lastModified))
+            .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/users/" + user.getId()).header("If-None-Match", "\"stale\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", etag));
+    }
+
+    @Test
+    void shouldRejectStaleIfMatchWithPreconditionFailed() throws Exception {
+        // Arrange
+        UserEntity user = userJpaRepository.save(new UserEntity(null, "if-match@example.com", "IfMatch", "User", "password", null, null, true, false, null, null));
+        String etag = mockMvc.perform(get("/api/users/" + user.getId()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+        String content = objectMapper.writeValueAsString(new RequestUserPatchDto(null, "First", null, null));
+
+        // Action / Assert
+        String next = mockMvc.perform(patch("/api/users/" + user.getId())
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version", is(1)))
+            .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(patch("/api/users/" + user.getId())
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserPatchDto(null, "Second", null, null))))
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(put("/api/users/" + user.getId())
+                .header("If-Match", next)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RequestUserDto("if-match@example.com", "Third", "User", "password"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.firstName", is("Third")));
+        mockMvc.perform(patch("/api/users/999999")
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(content))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenListEtagMatchesUntilPageChanges() throws Exception {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "list-etag@example.com", "List", "User", "password", null, null, true, false, null, null));
+        String etag = mockMvc.perform(get("/api/users"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+
+        // Action / Assert
+        mockMvc.perform(get("/api/users").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+        userJpaRepository.save(new UserEntity(null, "list-etag2@example.com", "List", "Two", "password", null, null, true, false, null, null));
+        mockMvc.perform(get("/api/users").header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(2)));
+    }
+
+    @Test
+    void shouldLookupUsersInRequestOrderAndReportMissingKeys() throws Exception {
+        // Arrange
+        UserEntity first = userJpaRepository.save(new UserEntity(null, "lookup1@example.com", "Lookup", "One", "password", null, null, true, false, null, null));
+        UserEntity second = userJpaRepository.save(new UserEntity(null, "lookup2@example.com", "Lookup", "Two", "password", null, null, true, false, null, null));
+        String body = objectMapper.writeValueAsString(new RequestUserLookupDto(
+            List.of(second.getId(), 999999L, first.getId()), List.of("LOOKUP1@example.com", "missing@example.com")));
+
+        // Action / Assert
+        mockMvc.perform(post("/api/users/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.users", hasSize(3)))
+            .andExpect(jsonPath("$.users[0].email", is("lookup2@example.com")))
+            .andExpect(jsonPath("$.users[1].email", is("lookup1@example.com")))
+            .andExpect(jsonPath("$.users[2].id", is(first.getId().intValue())))
+            .andExpect(jsonPath("$.missingIds", contains(999999)))
+            .andExpect(jsonPath("$.missingEmails", contains("missing@example.com")));
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedFields() throws Exception {
+        // Arrange
+        UserEntity user = userJpaRepository.save(new UserEntity(null, "sparse@example.com", "Sparse", "User", "password", null, null, true, false, null, null));
+
+        // Action / Assert
+        mockMvc.perform(get("/api/users").param("email", "sparse").param("fields", "email,id"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andExpect(jsonPath("$.totalElements", is(1)))
+            .andExpect(jsonPath("$.content[0].*", hasSize(2)))
+            .andExpect(jsonPath("$.content[0].id", is(user.getId().intValue())))
+            .andExpect(jsonPath("$.content[0].email", is("sparse@example.com")))
+            .andExpect(jsonPath("$.content[0].firstName").doesNotExist());
+        mockMvc.perform(get("/api/users").param("email", "sparse").param("fields", "id").param("count", "window"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements", is(1)))
+            .andExpect(jsonPath("$.content[0].*", hasSize(1)));
+        mockMvc.perform(get("/api/users/" + user.getId()).param("fields", "firstName,updatedAt"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.*", hasSize(2)))
+            .andExpect(jsonPath("$.firstName", is("Sparse")))
+            .andExpect(jsonPath("$.updatedAt").exists());
+        mockMvc.perform(get("/api/users").param("fields", "password"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users/999999").param("fields", "id"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldNegotiateBinaryFormats() throws Exception {
+        // Arrange
+        ObjectMapper cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+        ObjectMapper protobufMapper = objectMapperBuilder.factory(new ProtobufFactory()).build();
+        ProtobufJacksonHttpMessageConverter protobuf = new ProtobufJacksonHttpMessageConverter(protobufMapper);
+        ProtobufSchema userSchema = protobuf.schema(protobufMapper.constructType(ResponseUserDto.class)).orElseThrow();
+        ProtobufSchema pageSchema = protobuf.schema(protobufMapper.getTypeFactory()
+            .constructParametricType(ResponsePage.class, ResponseUserDto.class)).orElseThrow();
+        RequestUserDto dto = new RequestUserDto("binary@example.com", "Binary", "User", "password123");
+
+        // Action
+        MvcResult created = mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cborMapper.writeValueAsBytes(dto)))
+            .andExpect(status().isCreated())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn();
+        ResponseUserDto saved = cborMapper.readValue(created.getResponse().getContentAsByteArray(), ResponseUserDto.class);
+        MvcResult single = mockMvc.perform(get("/api/users/" + saved.id()).accept(ProtobufJacksonHttpMessageConverter.PROTOBUF))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(ProtobufJacksonHttpMessageConverter.PROTOBUF))
+            .andReturn();
+        MvcResult list = mockMvc.perform(get("/api/users").param("email", "binary")
+                .accept(ProtobufJacksonHttpMessageConverter.PROTOBUF))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(ProtobufJacksonHttpMessageConverter.PROTOBUF))
+            .andReturn();
+
+        // Assert
+        assertEquals("binary@example.com", saved.email());
+        ResponseUserDto read = protobufMapper.readerFor(ResponseUserDto.class).with(userSchema)
+            .readValue(single.getResponse().getContentAsByteArray());
+        assertEquals(saved.id(), read.id());
+        assertEquals("Binary", read.firstName());
+        assertEquals(saved.createdAt(), read.createdAt());
+        JsonNode page = protobufMapper.readerFor(JsonNode.class).with(pageSchema)
+            .readValue(list.getResponse().getContentAsByteArray());
+        assertEquals(1, page.get("totalElements").asInt());
+        assertEquals("binary@example.com", page.get("content").get(0).get("email").asText());
+        // JSON stays the default, and bodies protobuf cannot describe fall back to it.
+        mockMvc.perform(get("/api/users/" + saved.id()))
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/api/users/999999").accept(ProtobufJacksonHttpMessageConverter.PROTOBUF, MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void shouldPublishTheProtobufSchema() throws Exception {
+        // Arrange
+        ObjectMapper protobufMapper = objectMapperBuilder.factory(new ProtobufFactory()).build();
+        ProtobufJacksonHttpMessageConverter protobuf = new ProtobufJacksonHttpMessageConverter(protobufMapper);
+        TypeFactory types = protobufMapper.getTypeFactory();
+        String published = new ClassPathResource("static/users.proto").getContentAsString(StandardCharsets.UTF_8);
+        UserEntity user = userJpaRepository.save(new UserEntity(null, "proto@example.com", "Proto", "User", "password", null, null, true, false, null, null));
+
+        // Action
+        String generated = protobuf.proto(List.of(
+            types.constructType(RequestUserDto.class),
+            types.constructType(RequestUserPatchDto.class),
+            types.constructType(RequestUserLookupDto.class),
+            types.constructType(ResponseUserDto.class),
+            types.constructParametricType(ResponsePage.class, ResponseUserDto.class),
+            types.constructParametricType(ResponseWindow.class, ResponseUserDto.class),
+            types.constructType(ResponseUserLookupDto.class),
+            types.constructType(ResponseUserChangesDto.class)));
+        MvcResult single = mockMvc.perform(get("/api/users/" + user.getId()).accept(ProtobufJacksonHttpMessageConverter.PROTOBUF))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        // Assert
+        // A DTO change that renumbers a field fails here until static/users.proto is updated on purpose.
+        assertEquals(published, generated);
+        mockMvc.perform(get("/users.proto"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(published));
+        ProtobufSchema userSchema = ProtobufSchemaLoader.std.parse(published).withRootType("ResponseUserDto");
+        ResponseUserDto read = protobufMapper.readerFor(ResponseUserDto.class).with(userSchema)
+            .readValue(single.getResponse().getContentAsByteArray());
+        assertEquals(user.getId(), read.id());
+        assertEquals("proto@example.com", read.email());
+    }
+
+    @Test
+    void shouldTagEachRepresentationSeparately() throws Exception {
+        // Arrange
+        UserEntity user = userJpaRepository.save(new UserEntity(null, "tags@example.com", "Tags", "User", "password", null, null, true, false, null, null));
+
+        // Action
+        MvcResult json = mockMvc.perform(get("/api/users/" + user.getId()).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn();
+        MvcResult cbor = mockMvc.perform(get("/api/users/" + user.getId()).accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andReturn();
+
+        // Assert
+        String jsonTag = json.getResponse().getHeader("ETag");
+        String cborTag = cbor.getResponse().getHeader("ETag");
+        assertNotEquals(jsonTag, cborTag);
+        assertEquals(List.of("Accept"), json.getResponse().getHeaders("Vary"));
+        assertEquals(List.of("Accept"), cbor.getResponse().getHeaders("Vary"));
+        mockMvc.perform(get("/api/users/" + user.getId()).accept(MediaType.APPLICATION_CBOR).header("If-None-Match", cborTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("Vary", "Accept"));
+        mockMvc.perform(get("/api/users/" + user.getId()).accept(MediaType.APPLICATION_JSON).header("If-None-Match", cborTag))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users").param("email", "tags").accept(MediaType.APPLICATION_CBOR).header("If-None-Match",
+                mockMvc.perform(get("/api/users").param("email", "tags")).andReturn().getResponse().getHeader("ETag")))
+            .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/users/" + user.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .header("If-Match", cborTag)
+                .content("{\"firstName\":\"Retagged\"}"))
+            .andExpect(status().isOk());
+    }
+
     @Test
     void shouldReturnNotFoundWhenUserNotFound() throws Exception {
         // Action / Assert
@@ -141,6 +696,22 @@ class UserControllerIntegrationTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldRecordErrorStatementAndServiceMetricsPerOperation() throws Exception {
+        // Action
+        mockMvc.perform(get("/api/users/999"))
+            .andExpect(status().isNotFound());
+
+        // Assert
+        assertNotNull(meterRegistry.find("users.errors")
+            .tags("operation", "getUserById", "exception", "UserNotFoundException", "status", "404", "outcome", "CLIENT_ERROR")
+            .counter());
+        assertTrue(meterRegistry.find("users.db.statements").tags("uri", "/api/users/{userId}", "status", "404")
+            .summary().max() >= 1);
+        assertNotNull(meterRegistry.find("users.service").tags("method", "getUserById", "exception", "UserNotFoundException").timer());
+        assertNotNull(meterRegistry.find("users.repository").tags("method", "findResponseById").timer());
+    }
+
     @Test
     void shouldReturnBadRequestWhenUserIdNotNumber() throws Exception {
         // Action / Assert
@@ -153,7 +724,7 @@ class UserControllerIntegrationTest {
     void shouldUpdateUserSuccessfully() throws Exception {
         // Arrange
         UserEntity user = userJpaRepository.save(
-            new UserEntity(null, "update@example.com", "Old", "Name", "password", null, null, true, false)
+            new UserEntity(null, "update@example.com", "Old", "Name", "password", null, null, true, false, null, null)
         );
 
         RequestUserDto updateDto = new RequestUserDto("update@example.com", "New", "Name", "password");
@@ -178,9 +749,9 @@ class UserControllerIntegrationTest {
     @Test
     void updateShouldReturnConflictWhenEmailAlreadyExists() throws Exception {
         // Arrange
-        userJpaRepository.save(new UserEntity(null, "dup@example.com", "Test1", "User1", "password1", null, null, true, false));
+        userJpaRepository.save(new UserEntity(null, "dup@example.com", "Test1", "User1", "password1", null, null, true, false, null, null));
         UserEntity user = userJpaRepository.save(
-            new UserEntity(null, "update@example.com", "Old", "Name", "password", null, null, true, false)
+            new UserEntity(null, "update@example.com", "Old", "Name", "password", null, null, true, false, null, null)
         );
 
         RequestUserDto updateDto = new RequestUserDto("DUP@example.com", "New", "Name", "password");
@@ -196,7 +767,7 @@ class UserControllerIntegrationTest {
     void shouldPatchUserSuccessfully() throws Exception {
         // Arrange
         UserEntity user = userJpaRepository.save(
-            new UserEntity(null, "patch@example.com", "Old", "Name", "password", null, null, true, false)
+            new UserEntity(null, "patch@example.com", "Old", "Name", "password", null, null, true, false, null, null)
         );
 
         // Action / Assert
@@ -219,9 +790,9 @@ class UserControllerIntegrationTest {
     @Test
     void patchShouldReturnConflictWhenEmailAlreadyExists() throws Exception {
         // Arrange
-        userJpaRepository.save(new UserEntity(null, "dup@example.com", "Test1", "User1", "password1", null, null, true, false));
+        userJpaRepository.save(new UserEntity(null, "dup@example.com", "Test1", "User1", "password1", null, null, true, false, null, null));
         UserEntity user = userJpaRepository.save(
-            new UserEntity(null, "patch@example.com", "Old", "Name", "password", null, null, true, false)
+            new UserEntity(null, "patch@example.com", "Old", "Name", "password", null, null, true, false, null, null)
         );
 
         RequestUserPatchDto patchDto = new RequestUserPatchDto("DUP@example.com", null, null, null);
@@ -238,7 +809,7 @@ class UserControllerIntegrationTest {
     void shouldDeleteUserSuccessfully() throws Exception {
         // Arrange
         UserEntity user = userJpaRepository.save(
-                new UserEntity(null, "delete@example.com", "To", "Delete", "password", null, null, true, false)
+                new UserEntity(null, "delete@example.com", "To", "Delete", "password", null, null, true, false, null, null)
         );
 
         // Action / Assert
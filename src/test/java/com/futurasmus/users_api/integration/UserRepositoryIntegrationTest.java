@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,8 +14,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import com.futurasmus.users_api.application.dto.ResponseUserDto;
 import com.futurasmus.users_api.infrastructure.entity.UserEntity;
 import com.futurasmus.users_api.infrastructure.repository.UserJpaRepository;
 
@@ -25,7 +31,7 @@ public class UserRepositoryIntegrationTest {
     @Test
     void shouldSaveAndFindUser() {
         // Arrange
-        UserEntity user = new UserEntity(null, "test@example.com", "Test", "User", "password", null, null, true, false);
+        UserEntity user = new UserEntity(null, "test@example.com", "Test", "User", "password", null, null, true, false, null, null);
 
         // Action
         userJpaRepository.save(user);
@@ -45,9 +51,9 @@ public class UserRepositoryIntegrationTest {
     @Test
     void shouldFilterUsersUsingSpecification() {
         // Arrange
-        UserEntity user1 = new UserEntity(null, "test1@example.com", "Test1", "User1", "password1", null, null, true, false);
-        UserEntity user2 = new UserEntity(null, "test2@example.com", "Test2", "User2", "password2", null, null, true, false);
-        UserEntity user3 = new UserEntity(null, "test3@example.com", "Test3", "User3", "password3", null, null, false, true);
+        UserEntity user1 = new UserEntity(null, "test1@example.com", "Test1", "User1", "password1", null, null, true, false, null, null);
+        UserEntity user2 = new UserEntity(null, "test2@example.com", "Test2", "User2", "password2", null, null, true, false, null, null);
+        UserEntity user3 = new UserEntity(null, "test3@example.com", "Test3", "User3", "password3", null, null, false, true, null, null);
 
         userJpaRepository.saveAll(List.of(user1, user2, user3));
 
@@ -66,11 +72,59 @@ public class UserRepositoryIntegrationTest {
         assertFalse(result.stream().anyMatch(u -> u.getEmail().equals("test3@example.com")));
     }
 
+    @Test
+    void shouldProjectUsersIntoResponseDtos() {
+        // Arrange
+        UserEntity user1 = new UserEntity(null, "test1@example.com", "Test1", "User1", "password1", null, null, true, false, null, null);
+        UserEntity user2 = new UserEntity(null, "test2@example.com", "Test2", "User2", "password2", null, null, false, true, null, null);
+        userJpaRepository.saveAll(List.of(user1, user2));
+        Specification<UserEntity> spec = (root, query, cb) -> cb.isTrue(root.get("active"));
+
+        // Action
+        Optional<ResponseUserDto> byId = userJpaRepository.findResponseById(user2.getId());
+        Page<ResponseUserDto> page = userJpaRepository.findAllResponses(spec, PageRequest.of(0, 10, Sort.by("email")));
+
+        // Assert
+        assertTrue(byId.isPresent());
+        assertEquals("test2@example.com", byId.get().email());
+        assertEquals(false, byId.get().active());
+        assertEquals(1, page.getTotalElements());
+        assertEquals(user1.getId(), page.getContent().get(0).id());
+        assertEquals("Test1", page.getContent().get(0).firstName());
+    }
+
+    @Test
+    void shouldUpdateAndDeleteInSingleStatements() {
+        // Arrange
+        UserEntity user = new UserEntity(null, "test1@example.com", "Test1", "User1", "password1", null, null, true, false, null, null);
+        userJpaRepository.save(user);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        // Action
+        int patched = userJpaRepository.patch(user.getId(), null, null, "Patched", null, null, now);
+        int missing = userJpaRepository.patch(-1L, null, null, "Patched", null, null, now);
+        Optional<ResponseUserDto> result = userJpaRepository.findResponseById(user.getId());
+        int deleted = userJpaRepository.softDeleteById(user.getId(), now);
+
+        // Assert
+        assertEquals(1, patched);
+        assertEquals(0, missing);
+        assertEquals("test1@example.com", result.get().email());
+        assertEquals("Patched", result.get().firstName());
+        assertEquals("User1", result.get().lastName());
+        assertEquals(now, result.get().updatedAt());
+        assertEquals(1L, result.get().version());
+        assertEquals(1, deleted);
+        assertEquals(0, userJpaRepository.softDeleteById(user.getId(), now));
+        assertTrue(userJpaRepository.findById(user.getId()).isEmpty());
+        assertEquals(0, userJpaRepository.patch(user.getId(), null, null, "Deleted", null, null, now));
+    }
+
     @Test
     void shouldFailWhenDuplicateEmail() {
         // Arrange
-        UserEntity user1 = new UserEntity(null, "test1@example.com", "Test1", "User1", "password1", null, null, true, false);
-        UserEntity user2 = new UserEntity(null, "test1@example.com", "Test2", "User2", "password2", null, null, true, false);
+        UserEntity user1 = new UserEntity(null, "test1@example.com", "Test1", "User1", "password1", null, null, true, false, null, null);
+        UserEntity user2 = new UserEntity(null, "test1@example.com", "Test2", "User2", "password2", null, null, true, false, null, null);
 
         userJpaRepository.save(user1);
 
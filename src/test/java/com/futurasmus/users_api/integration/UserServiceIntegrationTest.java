@@ -1,8 +1,10 @@
 package com.futurasmus.users_api.integration;
 
+import com.futurasmus.users_api.application.dto.FileFormat;
 import com.futurasmus.users_api.application.dto.RequestUserDto;
 import com.futurasmus.users_api.application.dto.RequestUserFilterDto;
 import com.futurasmus.users_api.application.dto.ResponseUserDto;
+import com.futurasmus.users_api.application.service.EmailBloomFilter;
 import com.futurasmus.users_api.application.service.UserService;
 import com.futurasmus.users_api.common.exception.EmailAlreadyExistsException;
 import com.futurasmus.users_api.common.exception.UserNotFoundException;
@@ -13,10 +15,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +37,12 @@ class UserServiceIntegrationTest {
     @Autowired
     private UserJpaRepository userJpaRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
     @BeforeEach
     void setUp() {
         userJpaRepository.deleteAll();
@@ -58,17 +69,26 @@ class UserServiceIntegrationTest {
     @Test
     void shouldThrowExceptionWhenEmailAlreadyExists() {
         // Arrange
-        userJpaRepository.save(new UserEntity(null, "dup@example.com", "Test1", "User1", "password1", null, null, true, false));
+        userJpaRepository.save(new UserEntity(null, "dup@example.com", "Test1", "User1", "password1", null, null, true, false, null, null));
         RequestUserDto dto = new RequestUserDto("dup@example.com", "Test2", "User2", "password2");
 
         // Action / Assert
         assertThrows(EmailAlreadyExistsException.class, () -> userService.createUser(dto));
     }
 
+    @Test
+    void shouldAddEmailToFilterOnlyOnceCommitted() {
+        // Action: the test transaction is rolled back, never committed.
+        userService.createUser(new RequestUserDto("uncommitted-filter@example.com", "Test", "User", "password123"));
+
+        // Assert
+        assertFalse(emailFilter.mightContain("uncommitted-filter@example.com"));
+    }
+
     @Test
     void shouldFindUserById() {
         // Arrange
-        UserEntity user = userJpaRepository.save(new UserEntity(null, "findme@example.com", "Find", "Me", "password", null, null, true, false));
+        UserEntity user = userJpaRepository.save(new UserEntity(null, "findme@example.com", "Find", "Me", "password", null, null, true, false, null, null));
 
         // Action
         ResponseUserDto found = userService.getUserById(user.getId());
@@ -78,6 +98,39 @@ class UserServiceIntegrationTest {
         assertEquals(user.getFirstName(), found.firstName());
     }
 
+    @Test
+    void shouldServeRepeatedReadsFromCacheUntilUpdated() {
+        // Arrange
+        UserEntity user = userJpaRepository.save(new UserEntity(null, "cached@example.com", "Cached", "User", "password", null, null, true, false, null, null));
+        userService.getUserById(user.getId());
+        user.setFirstName("Stale");
+        userJpaRepository.saveAndFlush(user);
+
+        // Action
+        ResponseUserDto cached = userService.getUserById(user.getId());
+        userService.updateUser(user.getId(), new RequestUserDto("cached@example.com", "Fresh", "User", "password"));
+        ResponseUserDto refreshed = userService.getUserById(user.getId());
+
+        // Assert
+        assertEquals("Cached", cached.firstName());
+        assertEquals("Fresh", refreshed.firstName());
+        assertNotNull(cacheManager.getCache("users").get(user.getId()));
+    }
+
+    @Test
+    void shouldEvictCachedUserOnDelete() {
+        // Arrange
+        UserEntity user = userJpaRepository.save(new UserEntity(null, "evicted@example.com", "Evicted", "User", "password", null, null, true, false, null, null));
+        userService.getUserById(user.getId());
+
+        // Action
+        userService.deleteUser(user.getId());
+
+        // Assert
+        assertNull(cacheManager.getCache("users").get(user.getId()));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(user.getId()));
+    }
+
     @Test
     void shouldThrowExceptionWhenUserNotFound() {
         assertThrows(UserNotFoundException.class, () -> userService.getUserById(999L));
@@ -87,10 +140,10 @@ class UserServiceIntegrationTest {
     void shouldReturnPageOfAllUsers() {
         // Arrange
         userJpaRepository.saveAll(List.of(
-                new UserEntity(null, "test1@example.com", "Test1", "User1", "password1", null, null, true, false),
-                new UserEntity(null, "test2@example.com", "Test2", "User2", "password2", null, null, true, false)
+                new UserEntity(null, "test1@example.com", "Test1", "User1", "password1", null, null, true, false, null, null),
+                new UserEntity(null, "test2@example.com", "Test2", "User2", "password2", null, null, true, false, null, null)
         ));
-        RequestUserFilterDto filters = new RequestUserFilterDto(null, null, null, null, null, null, null, null, null, null, null, null);
+        RequestUserFilterDto filters = new RequestUserFilterDto(null, null, null, null, null, null, null, null, null, null, null, null, null);
 
         // Action
         Page<ResponseUserDto> users = userService.getAllUsers(filters, Pageable.unpaged());
@@ -99,10 +152,46 @@ class UserServiceIntegrationTest {
         assertEquals(2, users.getTotalElements());
     }
 
+    @Test
+    void shouldExportFilteredUsersAsNdjson() {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "one@example.com", "One", "User", "password", null, null, true, false, null, null));
+        userJpaRepository.save(new UserEntity(null, "two@example.com", "Two", "User", "password", null, null, false, false, null, null));
+        RequestUserFilterDto filter = new RequestUserFilterDto(null, null, null, null, null, null, null, null, null, null, true, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Action
+        userService.exportUsers(filter, FileFormat.NDJSON, out);
+
+        // Assert
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"email\":\"one@example.com\""));
+        assertFalse(lines.get(0).contains("password"));
+    }
+
+    @Test
+    void shouldExportUsersAsCsvWithEscapedFields() {
+        // Arrange
+        userJpaRepository.save(new UserEntity(null, "csv@example.com", "Ann, Jr", "O\"Neil", "password", null, null, true, false, null, null));
+        RequestUserFilterDto filter = new RequestUserFilterDto(null, null, null, null, null, null, null, null, null, null, null, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Action
+        userService.exportUsers(filter, FileFormat.CSV, out);
+
+        // Assert
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("id,email,firstName,lastName,createdAt,updatedAt,active,verified", lines.get(0));
+        assertTrue(lines.get(1).contains(",csv@example.com,\"Ann, Jr\",\"O\"\"Neil\","));
+        assertTrue(lines.get(1).endsWith(",true,false"));
+    }
+
     @Test
     void shouldUpdateUserSuccessfully() {
         // Arrange
-        UserEntity existing = userJpaRepository.save(new UserEntity(null, "updatable@example.com", "Old", "Name", "password", null, null, true, false));
+        UserEntity existing = userJpaRepository.save(new UserEntity(null, "updatable@example.com", "Old", "Name", "password", null, null, true, false, null, null));
         RequestUserDto dto = new RequestUserDto("updated@example.com", "New", "Name", "password");
 
         // Action
@@ -116,7 +205,7 @@ class UserServiceIntegrationTest {
     @Test
     void shouldDeleteUserSuccessfully() {
         // Arrange
-        UserEntity user = userJpaRepository.save(new UserEntity(null, "delete@example.com", "Del", "User", "password", null, null, true, false));
+        UserEntity user = userJpaRepository.save(new UserEntity(null, "delete@example.com", "Del", "User", "password", null, null, true, false, null, null));
 
         // Action
         userService.deleteUser(user.getId());